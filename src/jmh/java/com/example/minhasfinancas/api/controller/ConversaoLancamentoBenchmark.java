@@ -0,0 +1,83 @@
+package com.example.minhasfinancas.api.controller;
+
+import com.example.minhasfinancas.api.dto.LancamentoDTO;
+import com.example.minhasfinancas.benchmark.ContextoBenchmark;
+import com.example.minhasfinancas.model.entity.Categoria;
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.entity.Usuario;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import com.example.minhasfinancas.model.repository.UsuarioRepository;
+import com.example.minhasfinancas.service.CategoriaService;
+import com.example.minhasfinancas.service.LancamentoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Conversão entre LancamentoDTO e Lancamento feita pelo controller em cada gravação e leitura,
+// e a validação do serviço. Fica no pacote do controller porque os conversores são package-private.
+// Roda com o cache de usuários ligado, como em produção.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConversaoLancamentoBenchmark {
+
+    private ConfigurableApplicationContext contexto;
+    private LancamentoController controller;
+    private LancamentoService service;
+    private Lancamento lancamento;
+    private LancamentoDTO dto;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar("spring.cache.type=caffeine");
+        controller = contexto.getBean(LancamentoController.class);
+        service = contexto.getBean(LancamentoService.class);
+
+        Usuario usuario = contexto.getBean(UsuarioRepository.class)
+                .save(Usuario.builder().nome("benchmark").email("benchmark@email.com").senha("senha").build());
+        Categoria categoria = contexto.getBean(CategoriaService.class)
+                .salvar(Categoria.builder().descricao("Mercado").build());
+
+        lancamento = Lancamento.builder()
+                .id(1L)
+                .descricao("lancamento")
+                .mes(1)
+                .ano(2024)
+                .valor(BigDecimal.TEN)
+                .tipo(TipoLancamento.RECEITA)
+                .status(StatusLancamento.PENDENTE)
+                .latitude(new BigDecimal("-23.550520"))
+                .longitude(new BigDecimal("-46.633308"))
+                .usuario(usuario)
+                .categoria(categoria)
+                .build();
+        dto = controller.converter(lancamento);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public LancamentoDTO converterParaDto() {
+        return controller.converter(lancamento);
+    }
+
+    @Benchmark
+    public Lancamento converterParaEntidade() {
+        return controller.converter(dto);
+    }
+
+    @Benchmark
+    public Lancamento validar() {
+        service.validar(lancamento);
+        return lancamento;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.minhasfinancas.benchmark;
+
+import com.example.minhasfinancas.MinhasfinancasApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Sobe a aplicação com o perfil de teste (H2 em memória) para os benchmarks
+public final class ContextoBenchmark {
+
+    private ContextoBenchmark() {
+    }
+
+    public static ConfigurableApplicationContext iniciar(String... propriedades) {
+        return new SpringApplicationBuilder(MinhasfinancasApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .properties(propriedades)
+                .run();
+    }
+}
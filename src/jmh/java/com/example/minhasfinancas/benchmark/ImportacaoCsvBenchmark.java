@@ -0,0 +1,75 @@
+package com.example.minhasfinancas.benchmark;
+
+import com.example.minhasfinancas.model.entity.Usuario;
+import com.example.minhasfinancas.model.repository.LancamentoRepository;
+import com.example.minhasfinancas.model.repository.UsuarioRepository;
+import com.example.minhasfinancas.service.LancamentoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Linhas importadas por segundo em importarLancamentosCSV (leitura, validação, gravação e JSON de retorno),
+// por tamanho de arquivo. O contador "linhas" é a vazão em linhas/s; "importarArquivo" é em arquivos/s.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportacaoCsvBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int linhas;
+
+    private ConfigurableApplicationContext contexto;
+    private LancamentoService service;
+    private LancamentoRepository lancamentoRepository;
+    private Long usuarioId;
+    private MockMultipartFile arquivo;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Contadores {
+        public long linhas;
+    }
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar();
+        service = contexto.getBean(LancamentoService.class);
+        lancamentoRepository = contexto.getBean(LancamentoRepository.class);
+        Usuario usuario = contexto.getBean(UsuarioRepository.class)
+                .save(Usuario.builder().nome("benchmark").email("benchmark@email.com").senha("senha").build());
+        usuarioId = usuario.getId();
+
+        StringBuilder csv = new StringBuilder("descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n");
+        for (int i = 0; i < linhas; i++) {
+            csv.append("lancamento ").append(i).append(',')
+                    .append(i % 12 + 1).append(",2024,")
+                    .append(i + 1).append(".50,")
+                    .append(i % 2 == 0 ? "RECEITA" : "DESPESA")
+                    .append(",-23.550520,-46.633308,\n");
+        }
+        arquivo = new MockMultipartFile("file", "lancamentos.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Iteration)
+    public void limpar() {
+        lancamentoRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Object importarArquivo(Contadores contadores) throws Exception {
+        Object resultado = service.importarLancamentosCSV(arquivo, usuarioId);
+        contadores.linhas += linhas;
+        return resultado;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.minhasfinancas.benchmark;
+
+import com.example.minhasfinancas.model.entity.Usuario;
+import com.example.minhasfinancas.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Custo da autenticação por token: geração, validação com o cache de tokens verificados
+// e o parse com verificação HS512 completo (o que acontece na primeira requisição de cada token)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtServiceImpl service;
+    private Usuario usuario;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        service = new JwtServiceImpl();
+        ReflectionTestUtils.setField(service, "expiracao", "30");
+        ReflectionTestUtils.setField(service, "chaveAssinatura", "dGVudGFuZG8gc2VyIG1lbGhvcg==");
+        ReflectionTestUtils.setField(service, "tamanhoMaximoCache", 10000L);
+        service.iniciarCache();
+
+        usuario = Usuario.builder().id(1L).nome("benchmark").email("benchmark@email.com").build();
+        token = service.gerarToken(usuario);
+    }
+
+    @Benchmark
+    public String gerarToken() {
+        return service.gerarToken(usuario);
+    }
+
+    @Benchmark
+    public boolean isTokenValido() {
+        return service.isTokenValido(token);
+    }
+
+    @Benchmark
+    public Claims obterClaimsSemCache() {
+        return service.obterClaims(token);
+    }
+}
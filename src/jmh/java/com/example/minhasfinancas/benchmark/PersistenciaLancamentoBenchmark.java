@@ -0,0 +1,75 @@
+package com.example.minhasfinancas.benchmark;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import com.example.minhasfinancas.model.repository.LancamentoRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Linhas gravadas por segundo no saveAll da importação.
+// batchSize=0 reproduz o comportamento anterior (um INSERT por linha, como acontecia com IDENTITY);
+// batchSize=50 usa a sequência pooled com INSERTs em lote.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersistenciaLancamentoBenchmark {
+
+    private static final int LINHAS = 10000;
+
+    @Param({"0", "50"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext contexto;
+    private LancamentoRepository repository;
+    private TransactionTemplate transactionTemplate;
+    private List<Lancamento> lancamentos;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar("spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        repository = contexto.getBean(LancamentoRepository.class);
+        transactionTemplate = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+    }
+
+    @Setup(Level.Invocation)
+    public void criarLancamentos() {
+        lancamentos = new ArrayList<>(LINHAS);
+        for (int i = 0; i < LINHAS; i++) {
+            lancamentos.add(Lancamento.builder()
+                    .descricao("lancamento " + i)
+                    .mes(i % 12 + 1)
+                    .ano(2024)
+                    .valor(BigDecimal.valueOf(i + 1))
+                    .tipo(i % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+                    .status(StatusLancamento.PENDENTE)
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void limpar() {
+        repository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public void salvarLancamentos() {
+        transactionTemplate.execute(status -> repository.saveAll(lancamentos));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.minhasfinancas.benchmark;
+
+import com.example.minhasfinancas.model.entity.Categoria;
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.entity.Usuario;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialização JSON de listas de lançamentos com a mesma configuração de Jackson usada pelo Spring MVC
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SerializacaoLancamentoBenchmark {
+
+    @Param({"10", "1000"})
+    public int tamanho;
+
+    private ObjectMapper objectMapper;
+    private List<Lancamento> lancamentos;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Usuario usuario = Usuario.builder().id(1L).nome("benchmark").email("benchmark@email.com").build();
+        Categoria categoria = Categoria.builder().id(1L).descricao("Mercado").build();
+        lancamentos = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            lancamentos.add(Lancamento.builder()
+                    .id((long) i)
+                    .descricao("lancamento " + i)
+                    .mes(i % 12 + 1)
+                    .ano(2024)
+                    .valor(BigDecimal.valueOf(i + 1, 2))
+                    .tipo(i % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+                    .status(StatusLancamento.PENDENTE)
+                    .dataCadastro(LocalDate.of(2024, 1, 1))
+                    .latitude(new BigDecimal("-23.550520"))
+                    .longitude(new BigDecimal("-46.633308"))
+                    .usuario(usuario)
+                    .categoria(categoria)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws Exception {
+        return objectMapper.writeValueAsBytes(lancamentos);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import com.opencsv.CSVReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Leitura e conversão das linhas da importação, sem banco: o caminho anterior (CSVReader.readNext em String[]
+// e os campos convertidos duas vezes, mantido aqui só como referência) contra LeitorRegistrosCSV + ConversorLancamentoCSV.
+// Fica no pacote do serviço porque o leitor e o conversor são package-private. Rode com -prof gc para comparar a alocação por linha.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LeituraCsvBenchmark {
+
+    @Param({"10000"})
+    public int linhas;
+
+    private String csv;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Contadores {
+        public long linhas;
+    }
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        StringBuilder conteudo = new StringBuilder("descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n");
+        for (int i = 0; i < linhas; i++) {
+            conteudo.append(i % 10 == 0 ? "\"lancamento, com virgula " : "lancamento ").append(i).append(i % 10 == 0 ? "\"," : ",")
+                    .append(i % 12 + 1).append(",2024,")
+                    .append(i + 1).append(".50,")
+                    .append(i % 2 == 0 ? "RECEITA" : "despesa")
+                    .append(",-23.550520,-46.633308,")
+                    .append(i % 3 == 0 ? "Mercado" : "").append('\n');
+        }
+        csv = conteudo.toString();
+    }
+
+    @Benchmark
+    public void opencsv(Contadores contadores, Blackhole blackhole) throws Exception {
+        try (CSVReader csvReader = new CSVReader(new StringReader(csv))) {
+            csvReader.readNext();
+            String[] values;
+            int linhaAtual = 0;
+            while ((values = csvReader.readNext()) != null) {
+                blackhole.consume(converterOpencsv(values, ++linhaAtual));
+            }
+            contadores.linhas += linhaAtual;
+        }
+    }
+
+    @Benchmark
+    public void dedicado(Contadores contadores, Blackhole blackhole) throws Exception {
+        LeitorRegistrosCSV leitor = new LeitorRegistrosCSV(new StringReader(csv));
+        leitor.pularRegistro();
+        BlocoCSV registro = new BlocoCSV(1);
+        ConversorLancamentoCSV conversor = new ConversorLancamentoCSV();
+        int linhaAtual = 0;
+        while (leitor.lerRegistro(registro)) {
+            blackhole.consume(conversor.converter(registro, 0, ++linhaAtual));
+            registro.limpar();
+        }
+        contadores.linhas += linhaAtual;
+    }
+
+    // Conversão usada antes do ConversorLancamentoCSV, sem a busca de categoria
+    private static LinhaImportacaoCSV converterOpencsv(String[] values, int linhaAtual) {
+        List<String> errosLinha = new ArrayList<>();
+
+        if (values.length != 8) {
+            return LinhaImportacaoCSV.invalida(linhaAtual, "- Erro na linha " + linhaAtual + ": número incorreto de colunas (exigido: 8, encontrado: " + values.length + ").");
+        }
+
+        String descricao = values[0];
+        if (descricao == null || descricao.isEmpty() || descricao.length() > 100) {
+            errosLinha.add("Coluna de descrição: Descrição inválida (vazia ou com mais de 100 caracteres).");
+        }
+        try {
+            int mes = Integer.parseInt(values[1]);
+            if (mes < 1 || mes > 12) {
+                errosLinha.add("Coluna de mês: Mês inválido (valor: " + mes + ").");
+            }
+        } catch (NumberFormatException e) {
+            errosLinha.add("Coluna de mês: Formato inválido.");
+        }
+        try {
+            int ano = Integer.parseInt(values[2]);
+            if (String.valueOf(ano).length() != 4) {
+                errosLinha.add("Coluna de ano: Ano inválido (deve ter 4 dígitos, valor: " + ano + ").");
+            }
+        } catch (NumberFormatException e) {
+            errosLinha.add("Coluna de ano: Formato inválido.");
+        }
+        try {
+            BigDecimal valor = new BigDecimal(values[3]);
+            if (valor.compareTo(BigDecimal.ZERO) < 0) {
+                errosLinha.add("Coluna de valor: Valor não pode ser negativo (valor: " + valor + ").");
+            }
+        } catch (NumberFormatException e) {
+            errosLinha.add("Coluna de valor: Formato inválido.");
+        }
+        String tipo = values[4].toUpperCase();
+        if (!tipo.equals("RECEITA") && !tipo.equals("DESPESA")) {
+            errosLinha.add("Coluna de tipo: Tipo de lançamento inválido (deve ser 'RECEITA' ou 'DESPESA', valor: " + tipo + ").");
+        }
+        BigDecimal latitude = coordenadaOpencsv(values[5]);
+        BigDecimal longitude = coordenadaOpencsv(values[6]);
+
+        if (!errosLinha.isEmpty()) {
+            return LinhaImportacaoCSV.invalida(linhaAtual, "- Erro(s) na linha " + linhaAtual + ":\n " + String.join("\n ", errosLinha));
+        }
+
+        Lancamento lancamento = new Lancamento();
+        lancamento.setDescricao(descricao);
+        lancamento.setMes(Integer.parseInt(values[1]));
+        lancamento.setAno(Integer.parseInt(values[2]));
+        lancamento.setValor(new BigDecimal(values[3]));
+        lancamento.setLatitude(latitude);
+        lancamento.setLongitude(longitude);
+        lancamento.setTipo(TipoLancamento.valueOf(tipo));
+        lancamento.setStatus(StatusLancamento.PENDENTE);
+        return LinhaImportacaoCSV.valida(linhaAtual, lancamento, values[7]);
+    }
+
+    private static BigDecimal coordenadaOpencsv(String valor) {
+        try {
+            BigDecimal coordenada = new BigDecimal(valor);
+            if (coordenada.scale() > 15 || coordenada.precision() - coordenada.scale() > 3) {
+                return null;
+            }
+            return coordenada;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,20 +1,57 @@
 package com.example.minhasfinancas;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @SpringBootApplication
 @EnableWebMvc
+@EnableScheduling
+@EnableCaching
 public class MinhasfinancasApplication implements WebMvcConfigurer {
 
+	@Value("${exportacao.timeout-ms:600000}")
+	private long timeoutExportacao;
+
+	@Value("${exportacao.async.threads:4}")
+	private int threadsExportacao;
+
+	@Value("${exportacao.async.fila:20}")
+	private int tamanhoFilaExportacao;
+
 	@Override
 	public void addCorsMappings(CorsRegistry registry) {
 		registry.addMapping("/**").allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS");
 	}
 
+	// O download de lançamentos é escrito de forma assíncrona (StreamingResponseBody);
+	// com @EnableWebMvc a propriedade spring.mvc.async.request-timeout não é aplicada
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.setDefaultTimeout(timeoutExportacao);
+		configurer.setTaskExecutor(executorExportacao());
+	}
+
+	// Cada download segura uma conexão do pool JDBC enquanto percorre o cursor, então o número de threads
+	// fica abaixo de spring.datasource.hikari.maximum-pool-size; o que passar da fila é recusado
+	@Bean
+	public ThreadPoolTaskExecutor executorExportacao() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threadsExportacao);
+		executor.setMaxPoolSize(threadsExportacao);
+		executor.setQueueCapacity(tamanhoFilaExportacao);
+		executor.setThreadNamePrefix("exportacao-");
+		return executor;
+	}
+
 	public static void main(String[] args) {
 		SpringApplication.run(MinhasfinancasApplication.class, args);
 	}
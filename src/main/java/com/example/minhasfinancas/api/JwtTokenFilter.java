@@ -3,6 +3,7 @@ package com.example.minhasfinancas.api;
 import com.example.minhasfinancas.model.entity.Usuario;
 import com.example.minhasfinancas.service.JwtService;
 import com.example.minhasfinancas.service.impl.SecurityUserDetailsService;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,6 +15,7 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Optional;
 
 public class JwtTokenFilter extends OncePerRequestFilter {
 
@@ -32,12 +34,13 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
         if(authorization != null && authorization.startsWith("Bearer")) {
             String token = authorization.split(" ")[1];
-            boolean isTokenValid = jwtService.isTokenValido(token);
+            // Um único parse/verificação do token (ou nenhum, se já estiver no cache de tokens verificados)
+            Optional<Claims> claims = jwtService.obterClaimsValidas(token);
 
-            if(isTokenValid) {
-                String login = jwtService.obterLoginUsuario(token);
-                UserDetails usuarioAutenticado = userDetailsService.loadUserByUsername(login);
-                UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(usuarioAutenticado, null, usuarioAutenticado.getAuthorities());
+            Optional<UserDetails> usuarioAutenticado = claims.flatMap(userDetailsService::carregarPorClaims);
+
+            if(usuarioAutenticado.isPresent()) {
+                UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(usuarioAutenticado.get(), null, usuarioAutenticado.get().getAuthorities());
                 user.setDetails(new WebAuthenticationDetailsSource().buildDetails(httpServletRequest));
                 SecurityContextHolder.getContext().setAuthentication(user);
 
@@ -31,12 +31,16 @@ public class CategoriaController {
         }
     }
 
+    // A ETag é a versão do catálogo em memória: com If-None-Match igual, o Spring responde 304 sem corpo
     @GetMapping
     public ResponseEntity<List<CategoriaDTO>> listar() {
+        String versao = service.obterVersaoCatalogo();
         List<CategoriaDTO> categorias = service.listar().stream()
                 .map(this::converter)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(categorias);
+        return ResponseEntity.ok()
+                .eTag(versao)
+                .body(categorias);
     }
 
     // Método para converter Categoria em CategoriaDTO
@@ -1,19 +1,28 @@
 package com.example.minhasfinancas.api.controller;
 
+import com.example.minhasfinancas.api.dto.AgrupamentoGeograficoDTO;
 import com.example.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.example.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
+import com.example.minhasfinancas.api.dto.ImportacaoJobDTO;
 import com.example.minhasfinancas.api.dto.ImportacaoResultadoDTO;
 import com.example.minhasfinancas.api.dto.LancamentoDTO;
+import com.example.minhasfinancas.api.dto.OperacaoEmLoteDTO;
+import com.example.minhasfinancas.api.dto.PaginaLancamentosDTO;
+import com.example.minhasfinancas.api.dto.ResumoLancamentoDTO;
+import com.example.minhasfinancas.exception.ImportacaoRecusadaException;
 import com.example.minhasfinancas.exception.RegraNegocioException;
 import com.example.minhasfinancas.model.entity.Categoria;
 import com.example.minhasfinancas.model.entity.Lancamento;
 import com.example.minhasfinancas.model.entity.Usuario;
+import com.example.minhasfinancas.model.enums.FormatoExportacao;
 import com.example.minhasfinancas.model.enums.StatusLancamento;
 import com.example.minhasfinancas.model.enums.TipoLancamento;
+import com.example.minhasfinancas.model.repository.AreaGeografica;
+import com.example.minhasfinancas.model.repository.LancamentoFiltro;
 import com.example.minhasfinancas.service.CategoriaService;
+import com.example.minhasfinancas.service.ImportacaoAssincronaService;
 import com.example.minhasfinancas.service.LancamentoService;
 import com.example.minhasfinancas.service.UsuarioService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.opencsv.exceptions.CsvValidationException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -21,11 +30,13 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,6 +48,7 @@ public class LancamentoController {
     private final LancamentoService service;
     private final UsuarioService usuarioService;
     private final CategoriaService categoriaService;
+    private final ImportacaoAssincronaService importacaoAssincronaService;
 
     @GetMapping
     public ResponseEntity buscar(
@@ -47,32 +59,140 @@ public class LancamentoController {
             @RequestParam(value = "tipo", required = false) String tipo,
             @RequestParam("usuario") Long idUsuario
     ) {
-        Lancamento lancamentoFiltro = new Lancamento();
-        lancamentoFiltro.setDescricao(descricao);
-        lancamentoFiltro.setMes(mes);
-        lancamentoFiltro.setAno(ano);
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
+        }
+
+        LancamentoFiltro filtro = criarFiltro(descricao, mes, ano, categoriaId, tipo, idUsuario);
+
+        List<Lancamento> lancamentos = service.buscar(filtro);
+        return ResponseEntity.ok(lancamentos);
+    }
 
-        Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
-        if (!usuario.isPresent()) {
+    @GetMapping("/pagina")
+    public ResponseEntity buscarPagina(
+            @RequestParam(value = "descricao", required = false) String descricao,
+            @RequestParam(value = "mes", required = false) Integer mes,
+            @RequestParam(value = "ano", required = false) Integer ano,
+            @RequestParam(value = "categoriaId", required = false) Long categoriaId,
+            @RequestParam(value = "tipo", required = false) String tipo,
+            @RequestParam("usuario") Long idUsuario,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "tamanho", defaultValue = "50") int tamanho,
+            @RequestParam(value = "ordem", defaultValue = "desc") String ordem
+    ) {
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
             return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
-        } else {
-            lancamentoFiltro.setUsuario(usuario.get());
         }
 
-        if (categoriaId != null) {
-            Categoria categoria = new Categoria();
-            categoria.setId(categoriaId);
-            lancamentoFiltro.setCategoria(categoria);
+        if (!ordem.equalsIgnoreCase("asc") && !ordem.equalsIgnoreCase("desc")) {
+            return ResponseEntity.badRequest().body("Ordem inválida (deve ser 'asc' ou 'desc').");
         }
 
-        if (tipo != null) {
-            lancamentoFiltro.setTipo(TipoLancamento.valueOf(tipo));
+        LancamentoFiltro filtro = criarFiltro(descricao, mes, ano, categoriaId, tipo, idUsuario);
+
+        PaginaLancamentosDTO pagina = service.buscarPagina(filtro, cursor, tamanho, ordem.equalsIgnoreCase("desc"));
+        return ResponseEntity.ok(pagina);
+    }
+
+    @GetMapping("/busca")
+    public ResponseEntity buscarPorDescricao(
+            @RequestParam("usuario") Long idUsuario,
+            @RequestParam("termo") String termo,
+            @RequestParam(value = "ranqueado", defaultValue = "false") boolean ranqueado,
+            @RequestParam(value = "limite", defaultValue = "50") int limite
+    ) {
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
         }
 
-        List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
+        List<Lancamento> lancamentos = service.buscarPorDescricao(idUsuario, termo, ranqueado, limite);
         return ResponseEntity.ok(lancamentos);
     }
 
+    // Área do mapa; longitude mínima maior que a máxima indica uma área que cruza o antimeridiano
+    @GetMapping("/area")
+    public ResponseEntity buscarNaArea(
+            @RequestParam("usuario") Long idUsuario,
+            @RequestParam("latitudeMinima") double latitudeMinima,
+            @RequestParam("longitudeMinima") double longitudeMinima,
+            @RequestParam("latitudeMaxima") double latitudeMaxima,
+            @RequestParam("longitudeMaxima") double longitudeMaxima,
+            @RequestParam(value = "limite", defaultValue = "500") int limite
+    ) {
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
+        }
+
+        AreaGeografica area = new AreaGeografica(latitudeMinima, longitudeMinima, latitudeMaxima, longitudeMaxima);
+        List<Lancamento> lancamentos = service.buscarNaArea(idUsuario, area, limite);
+        return ResponseEntity.ok(lancamentos);
+    }
+
+    @GetMapping("/proximos")
+    public ResponseEntity buscarProximos(
+            @RequestParam("usuario") Long idUsuario,
+            @RequestParam("latitude") double latitude,
+            @RequestParam("longitude") double longitude,
+            @RequestParam("raio") double raioMetros,
+            @RequestParam(value = "limite", defaultValue = "50") int limite
+    ) {
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
+        }
+
+        List<Lancamento> lancamentos = service.buscarProximos(idUsuario, latitude, longitude, raioMetros, limite);
+        return ResponseEntity.ok(lancamentos);
+    }
+
+    // Agrupamentos para o mapa no nível de zoom; sem os quatro limites da área, agrupa todos os lançamentos com coordenadas
+    @GetMapping("/agrupamentos")
+    public ResponseEntity agruparNoMapa(
+            @RequestParam("usuario") Long idUsuario,
+            @RequestParam("zoom") int zoom,
+            @RequestParam(value = "latitudeMinima", required = false) Double latitudeMinima,
+            @RequestParam(value = "longitudeMinima", required = false) Double longitudeMinima,
+            @RequestParam(value = "latitudeMaxima", required = false) Double latitudeMaxima,
+            @RequestParam(value = "longitudeMaxima", required = false) Double longitudeMaxima
+    ) {
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
+        }
+
+        AreaGeografica area = null;
+        if (latitudeMinima != null || longitudeMinima != null || latitudeMaxima != null || longitudeMaxima != null) {
+            if (latitudeMinima == null || longitudeMinima == null || latitudeMaxima == null || longitudeMaxima == null) {
+                return ResponseEntity.badRequest().body("Informe os quatro limites da área ou nenhum deles.");
+            }
+            area = new AreaGeografica(latitudeMinima, longitudeMinima, latitudeMaxima, longitudeMaxima);
+        }
+
+        List<AgrupamentoGeograficoDTO> agrupamentos = service.agruparNoMapa(idUsuario, zoom, area);
+        return ResponseEntity.ok(agrupamentos);
+    }
+
+    // Totais por ano, mês, tipo, status e categoria lidos do resumo mantido a cada alteração, sem carregar os lançamentos
+    @GetMapping("/resumo")
+    public ResponseEntity obterResumo(
+            @RequestParam("usuario") Long idUsuario,
+            @RequestParam("anoInicio") Integer anoInicio,
+            @RequestParam(value = "mesInicio", defaultValue = "1") Integer mesInicio,
+            @RequestParam("anoFim") Integer anoFim,
+            @RequestParam(value = "mesFim", defaultValue = "12") Integer mesFim
+    ) {
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
+        }
+
+        if (mesInicio < 1 || mesInicio > 12 || mesFim < 1 || mesFim > 12
+                || anoInicio * 100 + mesInicio > anoFim * 100 + mesFim) {
+            return ResponseEntity.badRequest().body("Período inválido.");
+        }
+
+        List<ResumoLancamentoDTO> resumo = service.obterResumo(idUsuario, anoInicio, mesInicio, anoFim, mesFim);
+        return ResponseEntity.ok(resumo);
+    }
+
     @GetMapping("{id}")
     public ResponseEntity obterLancamento (@PathVariable("id") Long id) {
         return service.obterPorId(id)
@@ -114,40 +234,59 @@ public class LancamentoController {
                 new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
     }
 
+    // A transição é um único UPDATE condicional no serviço; o lançamento só é lido depois, para a resposta
+    // ou, quando a transição é recusada, para explicar o motivo
     @PutMapping("{id}/atualiza-status")
     public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto) {
-        return service.obterPorId(id).map(entity -> {
-            if (dto.getStatus() == null || dto.getStatus().isEmpty()) {
-                return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
-            }
+        if (dto.getStatus() == null || dto.getStatus().isEmpty()) {
+            return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
+        }
 
-            StatusLancamento statusSelecionado;
+        StatusLancamento statusSelecionado;
 
-            try {
-                statusSelecionado = StatusLancamento.valueOf(dto.getStatus().toUpperCase()); // Conversão segura
-            } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
-            }
+        try {
+            statusSelecionado = StatusLancamento.valueOf(dto.getStatus().toUpperCase()); // Conversão segura
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
+        }
 
-            if (statusSelecionado != StatusLancamento.EFETIVADO && statusSelecionado != StatusLancamento.CANCELADO) {
-                return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
+        if (statusSelecionado != StatusLancamento.EFETIVADO && statusSelecionado != StatusLancamento.CANCELADO) {
+            return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
+        }
+
+        try {
+            if (service.transicionarStatus(id, statusSelecionado)) {
+                return service.obterPorId(id)
+                        .map(entity -> new ResponseEntity(entity, HttpStatus.OK))
+                        .orElseGet(() -> new ResponseEntity(HttpStatus.OK));
             }
+        } catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
 
+        return service.obterPorId(id).map(entity -> {
+            if (entity.getStatus() != StatusLancamento.PENDENTE) {
+                return ResponseEntity.badRequest().body("Não é possível atualizar o status de um lançamento que já foi efetivado ou cancelado.");
+            }
             if (statusSelecionado == StatusLancamento.EFETIVADO && isDataFutura(entity)) {
                 return ResponseEntity.badRequest().body("O lançamento não pode ser efetivado com data futura.");
             }
-
-            try {
-                entity.setStatus(statusSelecionado);
-                service.atualizar(entity);
-                return ResponseEntity.ok(entity);
-            } catch (RegraNegocioException e) {
-                return ResponseEntity.badRequest().body(e.getMessage());
-            }
+            return ResponseEntity.badRequest().body("O lançamento foi alterado por outra operação. Tente novamente.");
         }).orElseGet(() ->
                 new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
     }
 
+    private LancamentoFiltro criarFiltro(String descricao, Integer mes, Integer ano, Long categoriaId, String tipo, Long idUsuario) {
+        return LancamentoFiltro.builder()
+                .idUsuario(idUsuario)
+                .descricao(descricao)
+                .mes(mes)
+                .ano(ano)
+                .categoriaId(categoriaId)
+                .tipo(tipo != null ? TipoLancamento.valueOf(tipo) : null)
+                .build();
+    }
+
     private boolean isDataFutura(Lancamento lancamento) {
         LocalDate hoje = LocalDate.now();
         int anoAtual = hoje.getYear();
@@ -172,6 +311,93 @@ public class LancamentoController {
                 new ResponseEntity("Lançamento não encontrado na base de Dados.", HttpStatus.BAD_REQUEST));
     }
 
+    // Operações em lote: todos os lançamentos são do usuário informado e cada operação é uma única transação
+
+    @PostMapping("/lote")
+    public ResponseEntity salvarEmLote(@RequestParam("usuario") Long idUsuario, @RequestBody List<LancamentoDTO> dtos) {
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+            return ResponseEntity.badRequest().body("Usuário não encontrado para o Id informado.");
+        }
+
+        try {
+            List<Lancamento> lancamentos = new ArrayList<>(dtos.size());
+            for (LancamentoDTO dto : dtos) {
+                if (dto.getCategoriaId() != null && !categoriaService.obterPorId(dto.getCategoriaId()).isPresent()) {
+                    return ResponseEntity.badRequest().body("Categoria não encontrada: " + dto.getCategoriaId() + ".");
+                }
+                dto.setUsuario(idUsuario);
+                lancamentos.add(converter(dto));
+            }
+
+            List<Lancamento> salvos = service.salvarEmLote(lancamentos);
+            return new ResponseEntity(salvos, HttpStatus.CREATED);
+        } catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/lote")
+    public ResponseEntity buscarPorIds(@RequestParam("usuario") Long idUsuario, @RequestParam("ids") List<Long> ids) {
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
+        }
+
+        List<Lancamento> lancamentos = service.buscarPorIds(idUsuario, ids);
+        return ResponseEntity.ok(lancamentos);
+    }
+
+    @PutMapping("/lote/atualiza-status")
+    public ResponseEntity atualizarStatusEmLote(@RequestParam("usuario") Long idUsuario, @RequestBody AtualizaStatusLoteDTO dto) {
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+            return ResponseEntity.badRequest().body("Usuário não encontrado para o Id informado.");
+        }
+        if (dto.getStatus() == null || dto.getStatus().isEmpty()) {
+            return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lançamentos, envie um status válido.");
+        }
+
+        StatusLancamento statusSelecionado;
+        try {
+            statusSelecionado = StatusLancamento.valueOf(dto.getStatus().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lançamentos, envie um status válido.");
+        }
+
+        try {
+            int afetados = service.atualizarStatusEmLote(idUsuario, dto.getIds(), statusSelecionado);
+            return ResponseEntity.ok(new OperacaoEmLoteDTO(dto.getIds().size(), afetados));
+        } catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Com ids apaga os lançamentos da lista; sem ids apaga os que atendem aos filtros (ao menos um além do usuário)
+    @DeleteMapping("/lote")
+    public ResponseEntity deletarEmLote(
+            @RequestParam("usuario") Long idUsuario,
+            @RequestParam(value = "ids", required = false) List<Long> ids,
+            @RequestParam(value = "descricao", required = false) String descricao,
+            @RequestParam(value = "mes", required = false) Integer mes,
+            @RequestParam(value = "ano", required = false) Integer ano,
+            @RequestParam(value = "categoriaId", required = false) Long categoriaId,
+            @RequestParam(value = "tipo", required = false) String tipo
+    ) {
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+            return ResponseEntity.badRequest().body("Usuário não encontrado para o Id informado.");
+        }
+
+        try {
+            if (ids != null) {
+                int afetados = service.deletarEmLote(idUsuario, ids);
+                return ResponseEntity.ok(new OperacaoEmLoteDTO(ids.size(), afetados));
+            }
+
+            int afetados = service.deletarPorFiltro(criarFiltro(descricao, mes, ano, categoriaId, tipo, idUsuario));
+            return ResponseEntity.ok(new OperacaoEmLoteDTO(null, afetados));
+        } catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     LancamentoDTO converter(Lancamento lancamento) {
         return LancamentoDTO.builder()
                 .id(lancamento.getId())
@@ -249,11 +475,55 @@ public class LancamentoController {
         try {
             ImportacaoResultadoDTO resultado = service.importarLancamentosCSV(file, usuario);
             return ResponseEntity.ok(resultado);
-        } catch (IOException | CsvValidationException e) {
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Erro ao importar lançamentos: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("{id}/importar/lotes")
+    public ResponseEntity<?> importarLancamentosCSVEmLotes(@RequestParam("file") MultipartFile file, @PathVariable("id") Long usuario) {
+        try {
+            ImportacaoResultadoDTO resultado = service.importarLancamentosCSVEmLotes(file, usuario);
+            return ResponseEntity.ok(resultado);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Erro ao importar lançamentos: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("{id}/importar/idempotente")
+    public ResponseEntity<?> importarLancamentosCSVSemDuplicados(@RequestParam("file") MultipartFile file, @PathVariable("id") Long usuario) {
+        try {
+            ImportacaoResultadoDTO resultado = service.importarLancamentosCSVSemDuplicados(file, usuario);
+            return ResponseEntity.ok(resultado);
+        } catch (IOException e) {
             return ResponseEntity.badRequest().body("Erro ao importar lançamentos: " + e.getMessage());
         }
     }
 
+    // Devolve 202 com o id da importação; o andamento é consultado em GET /api/lancamentos/importacoes/{id}?usuario={usuario}
+    @PostMapping("{id}/importar/async")
+    public ResponseEntity<?> importarLancamentosCSVAssincrono(@RequestParam("file") MultipartFile file, @PathVariable("id") Long usuario) {
+        try {
+            ImportacaoJobDTO job = importacaoAssincronaService.iniciar(file, usuario);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/lancamentos/importacoes/" + job.getId() + "?usuario=" + usuario))
+                    .body(job);
+        } catch (ImportacaoRecusadaException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Erro ao importar lançamentos: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/importacoes/{id}")
+    public ResponseEntity<?> obterImportacao(@PathVariable("id") String id, @RequestParam("usuario") Long usuario) {
+        return importacaoAssincronaService.obterStatus(id, usuario)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Importação não encontrada."));
+    }
+
     @GetMapping("/download")
     public ResponseEntity<?> downloadLancamentos(
             @RequestParam(value = "descricao", required = false) String descricao,
@@ -261,7 +531,8 @@ public class LancamentoController {
             @RequestParam(value = "ano", required = false) Integer ano,
             @RequestParam(value = "categoriaId", required = false) Long categoriaId,
             @RequestParam(value = "tipo", required = false) String tipo,
-            @RequestParam(value = "usuario", required = true) Long idUsuario
+            @RequestParam(value = "usuario", required = true) Long idUsuario,
+            @RequestParam(value = "format", defaultValue = "json") String format
     ) {
         if (idUsuario == null || idUsuario <= 0) {
             return ResponseEntity.badRequest().body("ID de usuário é obrigatório e deve ser um valor positivo.");
@@ -279,51 +550,35 @@ public class LancamentoController {
             }
         }
 
-        Lancamento lancamentoFiltro = new Lancamento();
-        lancamentoFiltro.setDescricao(descricao);
-        lancamentoFiltro.setMes(mes);
-        lancamentoFiltro.setAno(ano);
-
-        Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
-        if (!usuario.isPresent()) {
-            return ResponseEntity.badRequest().body("Usuário não encontrado para o ID informado.");
+        Optional<FormatoExportacao> formato = FormatoExportacao.porExtensao(format);
+        if (!formato.isPresent()) {
+            return ResponseEntity.badRequest().body("Formato inválido (deve ser 'json', 'csv', 'json.gz' ou 'csv.gz').");
         }
-        lancamentoFiltro.setUsuario(usuario.get());
 
-        if(categoriaId != null) {
-            Categoria categoria = new Categoria();
-            categoria.setId(categoriaId);
-            lancamentoFiltro.setCategoria(categoria);
+        if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+            return ResponseEntity.badRequest().body("Usuário não encontrado para o ID informado.");
         }
 
-        if(tipo != null){
-            TipoLancamento tipoLancamento = TipoLancamento.valueOf(tipo);
-            lancamentoFiltro.setTipo(tipoLancamento);
-        }
+        LancamentoFiltro filtro = criarFiltro(descricao, mes, ano, categoriaId, tipo, idUsuario);
 
-        List<Lancamento> lancamentos;
+        boolean existeLancamento;
         try {
-            lancamentos = service.buscar(lancamentoFiltro);
+            existeLancamento = service.existeLancamento(filtro);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro ao buscar lançamentos: " + e.getMessage());
         }
 
-        if (lancamentos.isEmpty()) {
+        if (!existeLancamento) {
             return ResponseEntity.noContent().build();
         }
 
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            objectMapper.writeValue(outputStream, lancamentos);
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=lancamentos.json")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(outputStream.toByteArray());
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro ao gerar o arquivo JSON: " + e.getMessage());
-        }
+        // O corpo é escrito direto na resposta enquanto o cursor do banco é percorrido
+        StreamingResponseBody corpo = saida -> service.exportar(filtro, formato.get(), saida);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=lancamentos." + formato.get().getExtensao())
+                .contentType(MediaType.parseMediaType(formato.get().getContentType()))
+                .body(corpo);
     }
 
 
@@ -0,0 +1,18 @@
+package com.example.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AgrupamentoGeograficoDTO {
+    private String celula;
+    private Long quantidade;
+    private BigDecimal total;
+    private Double latitude;
+    private Double longitude;
+}
@@ -0,0 +1,24 @@
+package com.example.minhasfinancas.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportacaoJobDTO {
+    private String id;
+    private Long usuario;
+    private String status;
+    private int linhasProcessadas;
+    // Estimado pelos bytes do arquivo já lidos
+    private int percentual;
+    // Presente só quando a importação termina
+    private ImportacaoResultadoDTO resultado;
+    private String mensagemErro;
+}
@@ -1,5 +1,6 @@
 package com.example.minhasfinancas.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.util.List;
@@ -9,14 +10,24 @@ public class ImportacaoResultadoDTO {
     private int lancamentosImportados;
     private int erros;
     private List<String> mensagensErros;
+
+    // Linhas que já estavam gravadas e foram ignoradas (só na importação sem duplicados)
+    private int duplicados;
+
+    // Nulo na importação em lotes, que devolve apenas o resumo
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<String> lancamentosJson;
 
 
     public ImportacaoResultadoDTO(int lancamentosImportados, int erros, List<String> mensagensErros, List<String> lancamentosJson) {
+        this(lancamentosImportados, erros, mensagensErros, lancamentosJson, 0);
+    }
+
+    public ImportacaoResultadoDTO(int lancamentosImportados, int erros, List<String> mensagensErros, List<String> lancamentosJson, int duplicados) {
         this.lancamentosImportados = lancamentosImportados;
         this.erros = erros;
         this.mensagensErros = mensagensErros;
         this.lancamentosJson = lancamentosJson;
-
+        this.duplicados = duplicados;
     }
 }
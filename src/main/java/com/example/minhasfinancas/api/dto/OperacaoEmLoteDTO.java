@@ -0,0 +1,14 @@
+package com.example.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Solicitados é o tamanho da lista de ids enviada (nulo nas operações por filtro)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OperacaoEmLoteDTO {
+    private Integer solicitados;
+    private int afetados;
+}
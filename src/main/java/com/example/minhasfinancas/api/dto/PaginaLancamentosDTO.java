@@ -0,0 +1,17 @@
+package com.example.minhasfinancas.api.dto;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaLancamentosDTO {
+    private List<Lancamento> lancamentos;
+    // Cursor da próxima página; nulo quando esta é a última
+    private String proximo;
+}
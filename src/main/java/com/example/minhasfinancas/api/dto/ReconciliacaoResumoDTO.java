@@ -0,0 +1,16 @@
+package com.example.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliacaoResumoDTO {
+    private int celulasVerificadas;
+    private int divergencias;
+    private List<String> mensagensDivergencias;
+}
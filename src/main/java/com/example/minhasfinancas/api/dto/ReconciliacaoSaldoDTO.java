@@ -0,0 +1,16 @@
+package com.example.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliacaoSaldoDTO {
+    private int usuariosVerificados;
+    private int divergencias;
+    private List<String> mensagensDivergencias;
+}
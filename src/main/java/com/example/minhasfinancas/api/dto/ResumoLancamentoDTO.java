@@ -0,0 +1,23 @@
+package com.example.minhasfinancas.api.dto;
+
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumoLancamentoDTO {
+    private Integer ano;
+    private Integer mes;
+    private TipoLancamento tipo;
+    private StatusLancamento status;
+    private Long categoriaId;
+    private String categoria;
+    private Long quantidade;
+    private BigDecimal total;
+}
@@ -0,0 +1,34 @@
+package com.example.minhasfinancas.config;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Banco em uso, para os trechos com SQL próprio do PostgreSQL (nos demais bancos, H2 nos testes, há uma alternativa portável).
+// O produto é lido dos metadados da conexão uma única vez.
+@Component
+public class BancoDeDados {
+
+    private final DataSource dataSource;
+
+    private volatile Boolean postgres;
+
+    public BancoDeDados(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public boolean isPostgres() {
+        if (postgres == null) {
+            try {
+                String produto = JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName");
+                postgres = "PostgreSQL".equalsIgnoreCase(produto);
+            } catch (MetaDataAccessException e) {
+                // Sem cache: a próxima chamada tenta de novo
+                return false;
+            }
+        }
+        return postgres;
+    }
+}
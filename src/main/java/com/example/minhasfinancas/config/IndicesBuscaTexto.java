@@ -0,0 +1,78 @@
+package com.example.minhasfinancas.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// Índices da busca por descrição, que o Hibernate não sabe criar a partir das anotações.
+// Só se aplicam ao PostgreSQL; no H2 a busca usa LIKE sem índice.
+@Slf4j
+@Component
+public class IndicesBuscaTexto {
+
+    private static final String CRIAR_EXTENSAO = "CREATE EXTENSION IF NOT EXISTS pg_trgm";
+
+    // Nome do índice e comando que o cria, na ordem
+    private static final String[][] INDICES = {
+            // Atende lower(descricao) LIKE '%termo%' da busca com filtros
+            {"idx_lancamento_descricao_trgm", "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_lancamento_descricao_trgm ON financas.lancamento " +
+                    "USING gin (lower(descricao) gin_trgm_ops)"},
+            // Atende a busca textual ranqueada
+            {"idx_lancamento_descricao_fts", "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_lancamento_descricao_fts ON financas.lancamento " +
+                    "USING gin (to_tsvector('portuguese', coalesce(descricao, '')))"}
+    };
+
+    // Um CREATE INDEX CONCURRENTLY interrompido (queda, deadlock, violação) deixa o índice marcado como inválido:
+    // ele continua sendo mantido nas escritas, não é usado nas consultas e o IF NOT EXISTS o considera existente
+    private static final String SQL_INDICE_VALIDO =
+            " select i.indisvalid from pg_index i " +
+            " join pg_class c on c.oid = i.indexrelid " +
+            " join pg_namespace n on n.oid = c.relnamespace " +
+            " where n.nspname = 'financas' and c.relname = ? ";
+
+    private final DataSource dataSource;
+    private final BancoDeDados bancoDeDados;
+
+    @Value("${busca.texto.criar-indices:true}")
+    private boolean criarIndices;
+
+    public IndicesBuscaTexto(DataSource dataSource, BancoDeDados bancoDeDados) {
+        this.dataSource = dataSource;
+        this.bancoDeDados = bancoDeDados;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void criarIndices() {
+        if (!criarIndices || !bancoDeDados.isPostgres()) {
+            return;
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        try {
+            jdbcTemplate.execute(CRIAR_EXTENSAO);
+        } catch (RuntimeException e) {
+            log.warn("Não foi possível criar a extensão da busca por descrição ({}): {}", CRIAR_EXTENSAO, e.getMessage());
+        }
+
+        for (String[] indice : INDICES) {
+            String nome = indice[0];
+            String comando = indice[1];
+            try {
+                List<Boolean> valido = jdbcTemplate.queryForList(SQL_INDICE_VALIDO, Boolean.class, nome);
+                if (!valido.isEmpty() && !valido.get(0)) {
+                    log.warn("Índice de busca por descrição {} inválido; recriando.", nome);
+                    jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS financas." + nome);
+                }
+                jdbcTemplate.execute(comando);
+            } catch (RuntimeException e) {
+                log.warn("Não foi possível criar o índice de busca por descrição ({}): {}", comando, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.minhasfinancas.config;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.util.List;
+
+// O otimizador pooled do Hibernate usa os ids (nextval - 49 .. nextval), o que só é seguro com a sequência
+// incrementando de 50 em 50. Bancos criados antes disso têm incremento 1 e o ddl-auto=update não percebe a diferença:
+// o primeiro lote depois do deploy repetiria ids já gravados. Por isso o incremento é conferido e ajustado na
+// inicialização, depois do schema atualizado e antes de qualquer lançamento ser gravado. Só se aplica ao PostgreSQL.
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class SequenciaLancamento {
+
+    private static final String SQL_INCREMENTO =
+            " select increment_by from pg_sequences where schemaname = 'financas' and sequencename = 'lancamento_id_seq' ";
+
+    // Várias instâncias podem subir ao mesmo tempo: o ajuste é feito sob um lock de transação e o incremento é
+    // conferido de novo dentro dele. A sequência recomeça depois do maior id gravado e do último valor já entregue.
+    private static final String SQL_AJUSTAR =
+            " do $$ begin " +
+            "   perform pg_advisory_xact_lock(hashtext('financas.lancamento_id_seq')); " +
+            "   if (select increment_by from pg_sequences where schemaname = 'financas' and sequencename = 'lancamento_id_seq') <> %1$d then " +
+            "     alter sequence financas.lancamento_id_seq increment by %1$d; " +
+            "     perform setval('financas.lancamento_id_seq', greatest((select coalesce(max(id), 0) from financas.lancamento), " +
+            "       (select last_value from financas.lancamento_id_seq)) + %1$d); " +
+            "   end if; " +
+            " end $$ ";
+
+    private final DataSource dataSource;
+    private final BancoDeDados bancoDeDados;
+
+    public SequenciaLancamento(DataSource dataSource, BancoDeDados bancoDeDados) {
+        this.dataSource = dataSource;
+        this.bancoDeDados = bancoDeDados;
+    }
+
+    @PostConstruct
+    public void ajustarIncremento() {
+        if (!bancoDeDados.isPostgres()) {
+            return;
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Long> incremento = jdbcTemplate.queryForList(SQL_INCREMENTO, Long.class);
+        if (incremento.isEmpty()) {
+            throw new IllegalStateException("Sequência financas.lancamento_id_seq não encontrada.");
+        }
+        if (incremento.get(0) == Lancamento.IDS_POR_RESERVA) {
+            return;
+        }
+
+        log.warn("Sequência financas.lancamento_id_seq com incremento {}; ajustando para {}.", incremento.get(0), Lancamento.IDS_POR_RESERVA);
+        try {
+            jdbcTemplate.execute(String.format(SQL_AJUSTAR, Lancamento.IDS_POR_RESERVA));
+        } catch (RuntimeException e) {
+            // Sem o ajuste os ids gerados colidiriam com os existentes: melhor não subir
+            throw new IllegalStateException("Não foi possível ajustar o incremento da sequência financas.lancamento_id_seq para "
+                    + Lancamento.IDS_POR_RESERVA + ". Ajuste-o manualmente (ver README).", e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.minhasfinancas.exception;
+
+public class ImportacaoRecusadaException extends RuntimeException {
+    public ImportacaoRecusadaException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.minhasfinancas.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// Arquivos já importados por completo na importação sem duplicados, identificados pelo SHA-256 do conteúdo
+@Entity
+@Table(name = "importacao_arquivo", schema = "financas", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_importacao_arquivo_usuario_hash", columnNames = {"id_usuario", "hash_arquivo"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacaoArquivo {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_usuario")
+    private Long idUsuario;
+
+    @Column(name = "hash_arquivo", length = 44)
+    private String hashArquivo;
+
+    @Column(name = "data_importacao")
+    @Convert(converter = Jsr310JpaConverters.LocalDateTimeConverter.class)
+    private LocalDateTime dataImportacao;
+
+    // Linhas do arquivo que já estão gravadas (importadas ou ignoradas como duplicadas)
+    @Column(name = "lancamentos")
+    private Integer lancamentos;
+}
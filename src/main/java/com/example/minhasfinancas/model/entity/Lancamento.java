@@ -2,6 +2,8 @@ package com.example.minhasfinancas.model.entity;
 
 import com.example.minhasfinancas.model.enums.StatusLancamento;
 import com.example.minhasfinancas.model.enums.TipoLancamento;
+import com.example.minhasfinancas.model.repository.Geohash;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,15 +16,31 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "lancamento", schema = "financas")
+@Table(name = "lancamento", schema = "financas", indexes = {
+        // Atende o cálculo de saldo só pelo índice: filtra por usuário e status e já traz tipo e valor
+        @Index(name = "idx_lancamento_usuario_status_tipo", columnList = "id_usuario, status, tipo, valor"),
+        // Ordem da paginação por cursor de cada usuário
+        @Index(name = "idx_lancamento_usuario_ano_mes_id", columnList = "id_usuario, ano, mes, id"),
+        @Index(name = "idx_lancamento_usuario_categoria", columnList = "id_usuario, categoria_id"),
+        // Buscas por área: cada área vira poucas faixas de geohash do usuário
+        @Index(name = "idx_lancamento_usuario_geohash", columnList = "id_usuario, geohash")
+}, uniqueConstraints = {
+        // Impede que a importação sem duplicados grave duas vezes a mesma linha; lançamentos sem hash não participam
+        @UniqueConstraint(name = "uk_lancamento_usuario_hash_importacao", columnNames = {"id_usuario", "hash_importacao"})
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Lancamento {
 
+    // Deve ser igual ao incremento da sequência no banco (ver SequenciaLancamento)
+    public static final int IDS_POR_RESERVA = 50;
+
+    // Sequência com otimizador pooled: o Hibernate reserva 50 ids por chamada e consegue agrupar os INSERTs em lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_seq")
+    @SequenceGenerator(name = "lancamento_seq", sequenceName = "lancamento_id_seq", schema = "financas", allocationSize = IDS_POR_RESERVA)
     @Column(name = "id")
     private Long id;
 
@@ -63,4 +81,20 @@ public class Lancamento {
 
     @Column(name = "longitude")
     private BigDecimal longitude;
+
+    // Preenchido só pela importação sem duplicados (ver ImpressaoDigitalImportacao)
+    @Column(name = "hash_importacao", length = 44)
+    @JsonIgnore
+    private String hashImportacao;
+
+    // Derivado de latitude e longitude (ver Geohash); a inserção em lote via JDBC calcula o mesmo valor
+    @Column(name = "geohash", length = Geohash.PRECISAO)
+    @JsonIgnore
+    private String geohash;
+
+    @PrePersist
+    @PreUpdate
+    void atualizarGeohash() {
+        geohash = Geohash.codificar(latitude, longitude);
+    }
 }
@@ -0,0 +1,56 @@
+package com.example.minhasfinancas.model.entity;
+
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+
+// Quantidade e total dos lançamentos de cada usuário por ano, mês, tipo, status e categoria (0 = sem categoria),
+// mantidos na mesma transação que altera os lançamentos. O índice único atende o relatório por período de cada usuário.
+@Entity
+@Table(name = "resumo_lancamento", schema = "financas", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_resumo_lancamento_celula", columnNames = {"id_usuario", "ano", "mes", "tipo", "status", "id_categoria"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoLancamento {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_usuario")
+    private Long idUsuario;
+
+    @Column(name = "ano")
+    private Integer ano;
+
+    @Column(name = "mes")
+    private Integer mes;
+
+    @Column(name = "tipo")
+    @Enumerated(value = EnumType.STRING)
+    private TipoLancamento tipo;
+
+    @Column(name = "status")
+    @Enumerated(value = EnumType.STRING)
+    private StatusLancamento status;
+
+    @Column(name = "id_categoria")
+    private Long idCategoria;
+
+    @Column(name = "quantidade")
+    private Long quantidade;
+
+    @Column(name = "total")
+    private BigDecimal total;
+
+}
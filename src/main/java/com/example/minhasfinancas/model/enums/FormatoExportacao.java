@@ -0,0 +1,44 @@
+package com.example.minhasfinancas.model.enums;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum FormatoExportacao {
+    JSON("json", "application/json", false),
+    CSV("csv", "text/csv", false),
+    JSON_GZIP("json.gz", "application/gzip", true),
+    CSV_GZIP("csv.gz", "application/gzip", true);
+
+    private final String extensao;
+    private final String contentType;
+    private final boolean compactado;
+
+    FormatoExportacao(String extensao, String contentType, boolean compactado) {
+        this.extensao = extensao;
+        this.contentType = contentType;
+        this.compactado = compactado;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean isCompactado() {
+        return compactado;
+    }
+
+    public boolean isCsv() {
+        return this == CSV || this == CSV_GZIP;
+    }
+
+    // O parâmetro da API é a própria extensão do arquivo gerado (json, csv, json.gz, csv.gz)
+    public static Optional<FormatoExportacao> porExtensao(String extensao) {
+        return Arrays.stream(values())
+                .filter(formato -> formato.extensao.equalsIgnoreCase(extensao))
+                .findFirst();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.minhasfinancas.model.enums;
+
+public enum StatusImportacao {
+    AGUARDANDO,
+    PROCESSANDO,
+    CONCLUIDA,
+    FALHOU
+}
@@ -0,0 +1,78 @@
+package com.example.minhasfinancas.model.repository;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Retângulo de latitude e longitude em graus. Longitude mínima maior que a máxima indica uma área que cruza o antimeridiano.
+@Getter
+public class AreaGeografica {
+
+    public static final double RAIO_TERRA_METROS = 6_371_008.8;
+    public static final AreaGeografica MUNDO = new AreaGeografica(-90, -180, 90, 180);
+
+    private final double latitudeMinima;
+    private final double longitudeMinima;
+    private final double latitudeMaxima;
+    private final double longitudeMaxima;
+
+    public AreaGeografica(double latitudeMinima, double longitudeMinima, double latitudeMaxima, double longitudeMaxima) {
+        this.latitudeMinima = latitudeMinima;
+        this.longitudeMinima = longitudeMinima;
+        this.latitudeMaxima = latitudeMaxima;
+        this.longitudeMaxima = longitudeMaxima;
+    }
+
+    // Menor retângulo que contém o círculo. Se o círculo alcança um polo, todas as longitudes entram.
+    public static AreaGeografica aoRedor(double latitude, double longitude, double raioMetros) {
+        double distanciaAngular = raioMetros / RAIO_TERRA_METROS;
+        double deltaLatitude = Math.toDegrees(distanciaAngular);
+        double latitudeMinima = latitude - deltaLatitude;
+        double latitudeMaxima = latitude + deltaLatitude;
+
+        if (latitudeMinima <= -90 || latitudeMaxima >= 90) {
+            return new AreaGeografica(Math.max(-90, latitudeMinima), -180, Math.min(90, latitudeMaxima), 180);
+        }
+
+        double seno = Math.sin(distanciaAngular) / Math.cos(Math.toRadians(latitude));
+        double deltaLongitude = seno >= 1 ? 180 : Math.toDegrees(Math.asin(seno));
+        if (deltaLongitude >= 180) {
+            return new AreaGeografica(latitudeMinima, -180, latitudeMaxima, 180);
+        }
+
+        double longitudeMinima = longitude - deltaLongitude;
+        double longitudeMaxima = longitude + deltaLongitude;
+        if (longitudeMinima < -180) {
+            longitudeMinima += 360;
+        }
+        if (longitudeMaxima > 180) {
+            longitudeMaxima -= 360;
+        }
+        return new AreaGeografica(latitudeMinima, longitudeMinima, latitudeMaxima, longitudeMaxima);
+    }
+
+    public boolean cruzaAntimeridiano() {
+        return longitudeMinima > longitudeMaxima;
+    }
+
+    public List<AreaGeografica> semCruzarAntimeridiano() {
+        if (!cruzaAntimeridiano()) {
+            return Collections.singletonList(this);
+        }
+        return Arrays.asList(
+                new AreaGeografica(latitudeMinima, longitudeMinima, latitudeMaxima, 180),
+                new AreaGeografica(latitudeMinima, -180, latitudeMaxima, longitudeMaxima));
+    }
+
+    // Distância pela fórmula de haversine, sobre uma esfera de raio médio
+    public static double distanciaMetros(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double deltaLatitude = Math.toRadians(latitude2 - latitude1);
+        double deltaLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(deltaLatitude / 2) * Math.sin(deltaLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(deltaLongitude / 2) * Math.sin(deltaLongitude / 2);
+        return 2 * RAIO_TERRA_METROS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -2,9 +2,16 @@ package com.example.minhasfinancas.model.repository;
 
 import com.example.minhasfinancas.model.entity.Categoria;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CategoriaRepository extends JpaRepository <Categoria, Long> {
     Optional<Categoria> findByDescricao(String descricao);
+
+    // Mesma comparação do catálogo em memória (descrição sem espaços nas pontas e em minúsculas); a de menor id vem primeiro
+    @Query(value = " select c from Categoria c where lower(trim(c.descricao)) = :descricao order by c.id ")
+    List<Categoria> findByDescricaoNormalizada(@Param("descricao") String descricaoNormalizada);
 }
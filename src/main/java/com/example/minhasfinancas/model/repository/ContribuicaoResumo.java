@@ -0,0 +1,82 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// Quanto um lançamento (ou um conjunto deles) soma a uma célula do resumo: usuário, ano, mês, tipo, status e categoria.
+// Lançamentos sem categoria ficam na categoria 0. Igualdade só pela célula, para agrupar as contribuições de uma mesma célula.
+@Getter
+@EqualsAndHashCode(of = {"idUsuario", "ano", "mes", "tipo", "status", "idCategoria"})
+public class ContribuicaoResumo {
+
+    public static final long SEM_CATEGORIA = 0L;
+
+    private final Long idUsuario;
+    private final Integer ano;
+    private final Integer mes;
+    private final TipoLancamento tipo;
+    private final StatusLancamento status;
+    private final Long idCategoria;
+    private final long quantidade;
+    private final BigDecimal valor;
+
+    public ContribuicaoResumo(Long idUsuario, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status,
+                              Long idCategoria, Long quantidade, BigDecimal valor) {
+        this.idUsuario = idUsuario;
+        this.ano = ano;
+        this.mes = mes;
+        this.tipo = tipo;
+        this.status = status;
+        this.idCategoria = idCategoria == null ? SEM_CATEGORIA : idCategoria;
+        this.quantidade = quantidade == null ? 0 : quantidade;
+        this.valor = valor == null ? BigDecimal.ZERO : valor;
+    }
+
+    public ContribuicaoResumo(Long idUsuario, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status,
+                              Long idCategoria, BigDecimal valor) {
+        this(idUsuario, ano, mes, tipo, status, idCategoria, 1L, valor);
+    }
+
+    public static ContribuicaoResumo de(Lancamento lancamento) {
+        Long idUsuario = lancamento.getUsuario() != null ? lancamento.getUsuario().getId() : null;
+        Long idCategoria = lancamento.getCategoria() != null ? lancamento.getCategoria().getId() : null;
+        return new ContribuicaoResumo(idUsuario, lancamento.getAno(), lancamento.getMes(), lancamento.getTipo(),
+                lancamento.getStatus(), idCategoria, lancamento.getValor());
+    }
+
+    // Lançamentos sem algum campo da célula não entram no resumo
+    public boolean isCompleta() {
+        return idUsuario != null && ano != null && mes != null && tipo != null && status != null;
+    }
+
+    public boolean isNula() {
+        return quantidade == 0 && valor.signum() == 0;
+    }
+
+    public ContribuicaoResumo negar() {
+        return new ContribuicaoResumo(idUsuario, ano, mes, tipo, status, idCategoria, -quantidade, valor.negate());
+    }
+
+    public ContribuicaoResumo somar(ContribuicaoResumo outra) {
+        return new ContribuicaoResumo(idUsuario, ano, mes, tipo, status, idCategoria, quantidade + outra.quantidade, valor.add(outra.valor));
+    }
+
+    // A mesma célula sem nenhum lançamento
+    public ContribuicaoResumo zerada() {
+        return new ContribuicaoResumo(idUsuario, ano, mes, tipo, status, idCategoria, 0L, BigDecimal.ZERO);
+    }
+
+    // A mesma contribuição em outro status, para mover lançamentos de célula sem relê-los
+    public ContribuicaoResumo comStatus(StatusLancamento novoStatus) {
+        return new ContribuicaoResumo(idUsuario, ano, mes, tipo, novoStatus, idCategoria, quantidade, valor);
+    }
+
+    public ContribuicaoSaldo paraSaldo() {
+        return new ContribuicaoSaldo(idUsuario, tipo, status, valor);
+    }
+}
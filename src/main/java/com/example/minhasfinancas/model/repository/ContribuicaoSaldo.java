@@ -0,0 +1,38 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// Quanto um lançamento (ou um conjunto deles) soma ao saldo de um usuário:
+// receitas efetivadas entram positivas, despesas efetivadas negativas e o resto não conta
+@Getter
+public class ContribuicaoSaldo {
+
+    private final Long idUsuario;
+    private final BigDecimal valor;
+
+    public ContribuicaoSaldo(Long idUsuario, BigDecimal valor) {
+        this.idUsuario = idUsuario;
+        this.valor = valor == null ? BigDecimal.ZERO : valor;
+    }
+
+    public ContribuicaoSaldo(Long idUsuario, TipoLancamento tipo, StatusLancamento status, BigDecimal valor) {
+        this(idUsuario, calcular(tipo, status, valor));
+    }
+
+    public static ContribuicaoSaldo de(Lancamento lancamento) {
+        Long idUsuario = lancamento.getUsuario() != null ? lancamento.getUsuario().getId() : null;
+        return new ContribuicaoSaldo(idUsuario, lancamento.getTipo(), lancamento.getStatus(), lancamento.getValor());
+    }
+
+    private static BigDecimal calcular(TipoLancamento tipo, StatusLancamento status, BigDecimal valor) {
+        if (status != StatusLancamento.EFETIVADO || valor == null || tipo == null) {
+            return BigDecimal.ZERO;
+        }
+        return tipo == TipoLancamento.RECEITA ? valor : valor.negate();
+    }
+}
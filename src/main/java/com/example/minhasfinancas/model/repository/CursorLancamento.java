@@ -0,0 +1,40 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Posição do último lançamento de uma página na ordem (ano, mes, id), serializada como texto opaco
+@Getter
+@AllArgsConstructor
+public class CursorLancamento {
+
+    private final int ano;
+    private final int mes;
+    private final long id;
+
+    public static CursorLancamento de(Lancamento lancamento) {
+        return new CursorLancamento(lancamento.getAno(), lancamento.getMes(), lancamento.getId());
+    }
+
+    public String codificar() {
+        String valor = ano + ":" + mes + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorLancamento decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split(":");
+            if (partes.length != 3) {
+                throw new IllegalArgumentException("Cursor inválido.");
+            }
+            return new CursorLancamento(Integer.parseInt(partes[0]), Integer.parseInt(partes[1]), Long.parseLong(partes[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+    }
+}
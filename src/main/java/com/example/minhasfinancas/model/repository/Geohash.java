@@ -0,0 +1,191 @@
+package com.example.minhasfinancas.model.repository;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+// Geohash das coordenadas dos lançamentos: intercala os bits de longitude e latitude, 5 bits por caractere, de forma que
+// células próximas compartilham prefixo e a ordem das strings segue uma curva Z. Com isso uma área vira poucas faixas
+// contíguas de texto, atendidas por um índice B-tree comum (id_usuario, geohash) tanto no PostgreSQL quanto no H2.
+public final class Geohash {
+
+    public static final int PRECISAO = 12;
+    public static final int ZOOM_MAXIMO = 22;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    // Nulo quando falta alguma coordenada ou ela está fora do globo: o lançamento só não aparece nas buscas por área
+    public static String codificar(BigDecimal latitude, BigDecimal longitude) {
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        double lat = latitude.doubleValue();
+        double lon = longitude.doubleValue();
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            return null;
+        }
+        return codificar(lat, lon, PRECISAO);
+    }
+
+    public static String codificar(double latitude, double longitude, int precisao) {
+        return codificar(indiceLatitude(latitude, precisao), indiceLongitude(longitude, precisao), precisao);
+    }
+
+    // Precisão do agrupamento para um nível de zoom de mapa (0 = mundo inteiro em um bloco de 256 px): a menor em que
+    // a célula tem no máximo 1/4 da largura do bloco, cerca de 64 px na tela. O prefixo do geohash gravado já é a chave
+    // da célula em cada nível, então agrupar não exige recalcular nada a partir das coordenadas.
+    public static int precisaoParaZoom(int zoom) {
+        for (int precisao = 1; precisao < PRECISAO; precisao++) {
+            if (bitsLongitude(precisao) >= zoom + 2) {
+                return precisao;
+            }
+        }
+        return PRECISAO;
+    }
+
+    // Quantas células da precisão cobrem o retângulo (sem cruzar o antimeridiano): o máximo de linhas de um agrupamento nele
+    public static long contarCelulas(double latitudeMinima, double longitudeMinima, double latitudeMaxima, double longitudeMaxima, int precisao) {
+        long colunas = indiceLongitude(longitudeMaxima, precisao) - indiceLongitude(longitudeMinima, precisao) + 1;
+        long linhas = indiceLatitude(latitudeMaxima, precisao) - indiceLatitude(latitudeMinima, precisao) + 1;
+        return colunas * linhas;
+    }
+
+    // Faixas [inicio, fim) de geohash que cobrem o retângulo (sem cruzar o antimeridiano), usando a maior precisão
+    // em que a cobertura cabe em "maximoCelulas" células. Células vizinhas na ordem do texto viram uma única faixa.
+    public static List<Faixa> cobrir(double latitudeMinima, double longitudeMinima, double latitudeMaxima, double longitudeMaxima, int maximoCelulas) {
+        int precisao = 1;
+        for (int candidata = PRECISAO; candidata > 1; candidata--) {
+            long colunas = indiceLongitude(longitudeMaxima, candidata) - indiceLongitude(longitudeMinima, candidata) + 1;
+            long linhas = indiceLatitude(latitudeMaxima, candidata) - indiceLatitude(latitudeMinima, candidata) + 1;
+            if (colunas * linhas <= maximoCelulas) {
+                precisao = candidata;
+                break;
+            }
+        }
+
+        TreeSet<String> celulas = new TreeSet<>();
+        for (long lat = indiceLatitude(latitudeMinima, precisao); lat <= indiceLatitude(latitudeMaxima, precisao); lat++) {
+            for (long lon = indiceLongitude(longitudeMinima, precisao); lon <= indiceLongitude(longitudeMaxima, precisao); lon++) {
+                celulas.add(codificar(lat, lon, precisao));
+            }
+        }
+
+        List<Faixa> faixas = new ArrayList<>();
+        String inicio = null;
+        String fim = null;
+        for (String celula : celulas) {
+            if (inicio != null && continua(fim, celula)) {
+                fim = proximo(celula);
+                continue;
+            }
+            if (inicio != null) {
+                faixas.add(new Faixa(inicio, fim));
+            }
+            inicio = celula;
+            fim = proximo(celula);
+        }
+        if (inicio != null) {
+            faixas.add(new Faixa(inicio, fim));
+        }
+        return faixas;
+    }
+
+    // Menor geohash maior que todos os que começam com o prefixo; nulo se o prefixo for o último ("zz...")
+    static String proximo(String prefixo) {
+        char[] caracteres = prefixo.toCharArray();
+        for (int i = caracteres.length - 1; i >= 0; i--) {
+            int valor = valor(caracteres[i]);
+            if (valor < BASE32.length - 1) {
+                caracteres[i] = BASE32[valor + 1];
+                return new String(caracteres, 0, i + 1);
+            }
+        }
+        return null;
+    }
+
+    // A célula começa exatamente onde a faixa termina: é o fim seguido só de zeros
+    private static boolean continua(String fim, String celula) {
+        if (fim == null || !celula.startsWith(fim)) {
+            return false;
+        }
+        for (int i = fim.length(); i < celula.length(); i++) {
+            if (celula.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String codificar(long indiceLatitude, long indiceLongitude, int precisao) {
+        int bitsLongitude = bitsLongitude(precisao);
+        int bitsLatitude = bitsLatitude(precisao);
+        char[] geohash = new char[precisao];
+        int usadosLongitude = 0;
+        int usadosLatitude = 0;
+
+        for (int caractere = 0; caractere < precisao; caractere++) {
+            int valor = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                // A sequência começa pela longitude e alterna com a latitude
+                int posicao = caractere * 5 + bit;
+                long proximoBit = posicao % 2 == 0
+                        ? (indiceLongitude >> (bitsLongitude - 1 - usadosLongitude++)) & 1
+                        : (indiceLatitude >> (bitsLatitude - 1 - usadosLatitude++)) & 1;
+                valor = (valor << 1) | (int) proximoBit;
+            }
+            geohash[caractere] = BASE32[valor];
+        }
+        return new String(geohash);
+    }
+
+    private static long indiceLatitude(double latitude, int precisao) {
+        return indice(latitude + 90, 180, bitsLatitude(precisao));
+    }
+
+    private static long indiceLongitude(double longitude, int precisao) {
+        return indice(longitude + 180, 360, bitsLongitude(precisao));
+    }
+
+    // Posição da coordenada entre as 2^bits divisões do intervalo; o limite superior fica na última divisão
+    private static long indice(double deslocamento, double amplitude, int bits) {
+        long divisoes = 1L << bits;
+        long indice = (long) Math.floor(deslocamento / amplitude * divisoes);
+        return Math.max(0, Math.min(divisoes - 1, indice));
+    }
+
+    private static int bitsLongitude(int precisao) {
+        return (precisao * 5 + 1) / 2;
+    }
+
+    private static int bitsLatitude(int precisao) {
+        return precisao * 5 / 2;
+    }
+
+    private static int valor(char caractere) {
+        for (int i = 0; i < BASE32.length; i++) {
+            if (BASE32[i] == caractere) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Caractere inválido no geohash: " + caractere);
+    }
+
+    @Getter
+    public static class Faixa {
+
+        private final String inicio;
+        // Exclusivo; nulo quando a faixa vai até o fim da ordem
+        private final String fim;
+
+        Faixa(String inicio, String fim) {
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+    }
+}
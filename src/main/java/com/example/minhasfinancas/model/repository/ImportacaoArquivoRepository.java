@@ -0,0 +1,11 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.model.entity.ImportacaoArquivo;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ImportacaoArquivoRepository extends JpaRepository<ImportacaoArquivo, Long> {
+
+    Optional<ImportacaoArquivo> findByIdUsuarioAndHashArquivo(Long idUsuario, String hashArquivo);
+}
@@ -0,0 +1,22 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Filtros da consulta de lançamentos; apenas os campos preenchidos viram condições
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LancamentoFiltro {
+
+    private Long idUsuario;
+    private String descricao;
+    private Integer mes;
+    private Integer ano;
+    private Long categoriaId;
+    private TipoLancamento tipo;
+}
@@ -1,21 +1,85 @@
 package com.example.minhasfinancas.model.repository;
 
+import com.example.minhasfinancas.api.dto.ResumoLancamentoDTO;
 import com.example.minhasfinancas.model.entity.Lancamento;
 import com.example.minhasfinancas.model.enums.StatusLancamento;
 import com.example.minhasfinancas.model.enums.TipoLancamento;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, JpaSpecificationExecutor<Lancamento>, LancamentoRepositoryCustom {
 
-    @Query(value = " select sum(l.valor) from Lancamento l join l.usuario u " +
-            "where u.id = :idUsuario and l.tipo = :tipo and l.status = :status group by u ")
-    BigDecimal obterSaldoPorTipoLancamentoEUsuarioEStatus(
+    // Receitas menos despesas em uma única consulta, filtrando direto pela coluna id_usuario (sem join)
+    @Query(value = " select sum(case when l.tipo = com.example.minhasfinancas.model.enums.TipoLancamento.RECEITA then l.valor " +
+            "when l.tipo = com.example.minhasfinancas.model.enums.TipoLancamento.DESPESA then -l.valor else 0 end) " +
+            "from Lancamento l where l.usuario.id = :idUsuario and l.status = :status ")
+    BigDecimal obterSaldoPorUsuarioEStatus(
             @Param("idUsuario") Long idUsuario,
-            @Param("tipo") TipoLancamento tipo,
             @Param("status") StatusLancamento status);
 
+    // Lê o estado gravado no banco sem descarregar antes as alterações pendentes da sessão,
+    // para obter a contribuição anterior à alteração em andamento (ao resumo e, por ContribuicaoResumo.paraSaldo, ao saldo)
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FLUSH_MODE, value = "COMMIT"))
+    @Query(value = " select new com.example.minhasfinancas.model.repository.ContribuicaoResumo(l.usuario.id, l.ano, l.mes, " +
+            "l.tipo, l.status, c.id, l.valor) " +
+            "from Lancamento l left join l.categoria c where l.id = :id ")
+    Optional<ContribuicaoResumo> obterContribuicaoResumo(@Param("id") Long id);
+
+    @Query(value = " select new com.example.minhasfinancas.model.repository.ContribuicaoSaldo(l.usuario.id, " +
+            "sum(case when l.tipo = com.example.minhasfinancas.model.enums.TipoLancamento.RECEITA then l.valor " +
+            "when l.tipo = com.example.minhasfinancas.model.enums.TipoLancamento.DESPESA then -l.valor else 0 end)) " +
+            "from Lancamento l where l.status = com.example.minhasfinancas.model.enums.StatusLancamento.EFETIVADO " +
+            "and l.usuario is not null group by l.usuario.id ")
+    List<ContribuicaoSaldo> obterSaldosEfetivadosPorUsuario();
+
+    // Lançamentos com coordenadas ainda sem geohash, em ordem de id (ver PreenchimentoGeohashJob)
+    @Query(value = " select l from Lancamento l where l.id > :id and l.geohash is null " +
+            "and l.latitude is not null and l.longitude is not null order by l.id ")
+    List<Lancamento> buscarSemGeohash(@Param("id") Long id, Pageable pagina);
+
+    // Uma célula do resumo calculada a partir dos lançamentos; idCategoria 0 é a célula dos lançamentos sem categoria
+    @Query(value = " select new com.example.minhasfinancas.model.repository.ContribuicaoResumo(l.usuario.id, l.ano, l.mes, " +
+            "l.tipo, l.status, c.id, count(l), sum(l.valor)) " +
+            "from Lancamento l left join l.categoria c where l.usuario.id = :idUsuario and l.ano = :ano and l.mes = :mes " +
+            "and l.tipo = :tipo and l.status = :status and coalesce(c.id, 0) = :idCategoria " +
+            "group by l.usuario.id, l.ano, l.mes, l.tipo, l.status, c.id ")
+    Optional<ContribuicaoResumo> obterResumoCalculado(
+            @Param("idUsuario") Long idUsuario,
+            @Param("ano") Integer ano,
+            @Param("mes") Integer mes,
+            @Param("tipo") TipoLancamento tipo,
+            @Param("status") StatusLancamento status,
+            @Param("idCategoria") Long idCategoria);
+
+    @Query(value = " select new com.example.minhasfinancas.model.repository.ContribuicaoResumo(l.usuario.id, l.ano, l.mes, " +
+            "l.tipo, l.status, c.id, count(l), sum(l.valor)) " +
+            "from Lancamento l left join l.categoria c where l.usuario is not null and l.ano is not null and l.mes is not null " +
+            "and l.tipo is not null and l.status is not null " +
+            "group by l.usuario.id, l.ano, l.mes, l.tipo, l.status, c.id ")
+    List<ContribuicaoResumo> obterResumosCalculados();
+
+    // Mesmo relatório de ResumoLancamentoRepository.obterResumoPorPeriodo, agregando direto os lançamentos
+    @Query(value = " select new com.example.minhasfinancas.api.dto.ResumoLancamentoDTO(l.ano, l.mes, l.tipo, l.status, " +
+            "c.id, c.descricao, count(l), sum(l.valor)) " +
+            "from Lancamento l left join l.categoria c " +
+            "where l.usuario.id = :idUsuario and l.ano between :anoInicio and :anoFim " +
+            "and l.ano * 100 + l.mes between :inicio and :fim and l.tipo is not null and l.status is not null " +
+            "group by l.ano, l.mes, l.tipo, l.status, c.id, c.descricao " +
+            "order by l.ano, l.mes, l.tipo, l.status, c.id ")
+    List<ResumoLancamentoDTO> calcularResumoPorPeriodo(
+            @Param("idUsuario") Long idUsuario,
+            @Param("anoInicio") Integer anoInicio,
+            @Param("anoFim") Integer anoFim,
+            @Param("inicio") Integer inicio,
+            @Param("fim") Integer fim);
+
 }
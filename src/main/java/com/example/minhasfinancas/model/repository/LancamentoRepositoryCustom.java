@@ -0,0 +1,32 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.api.dto.AgrupamentoGeograficoDTO;
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface LancamentoRepositoryCustom {
+
+    List<Lancamento> buscarPorCursor(Specification<Lancamento> especificacao, CursorLancamento cursor, boolean decrescente, int limite);
+
+    List<Lancamento> buscarPorProximidade(Specification<Lancamento> especificacao, double latitude, double longitude, int limite);
+
+    List<AgrupamentoGeograficoDTO> agruparPorCelula(Specification<Lancamento> especificacao, int precisao);
+
+    List<Lancamento> buscarPorTextoRanqueado(Long idUsuario, String termo, int limite);
+
+    Stream<Lancamento> streamPorFiltro(Specification<Lancamento> especificacao, int tamanhoFetch);
+
+    int inserirIgnorandoDuplicados(List<Lancamento> lancamentos);
+
+    int bloquear(Specification<Lancamento> especificacao);
+
+    List<ContribuicaoResumo> agruparContribuicoes(Specification<Lancamento> especificacao);
+
+    int atualizarStatus(Specification<Lancamento> especificacao, StatusLancamento status);
+
+    int deletar(Specification<Lancamento> especificacao);
+}
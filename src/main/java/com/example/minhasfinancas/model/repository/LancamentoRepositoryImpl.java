@@ -0,0 +1,345 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.api.dto.AgrupamentoGeograficoDTO;
+import com.example.minhasfinancas.config.BancoDeDados;
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+    // Deve casar com a expressão do índice idx_lancamento_descricao_fts (ver IndicesBuscaTexto)
+    private static final String SQL_BUSCA_TEXTO_POSTGRES =
+            " select l.* from financas.lancamento l " +
+            " where l.id_usuario = :idUsuario " +
+            " and to_tsvector('portuguese', coalesce(l.descricao, '')) @@ plainto_tsquery('portuguese', :termo) " +
+            " order by ts_rank(to_tsvector('portuguese', coalesce(l.descricao, '')), plainto_tsquery('portuguese', :termo)) desc, l.id desc ";
+
+    private static final String SQL_INSERIR =
+            " insert into financas.lancamento (id, descricao, mes, ano, id_usuario, valor, data_cadastro, tipo, status, " +
+            " categoria_id, latitude, longitude, hash_importacao, geohash) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ";
+
+    // Linhas que já existem (mesmo usuário e hash) são descartadas pelo índice único, sem erro e sem abortar o lote
+    private static final String SQL_INSERIR_POSTGRES = SQL_INSERIR + " on conflict (id_usuario, hash_importacao) do nothing ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BancoDeDados bancoDeDados;
+
+    public LancamentoRepositoryImpl(BancoDeDados bancoDeDados) {
+        this.bancoDeDados = bancoDeDados;
+    }
+
+    // Paginação por chave (keyset): filtra a partir do cursor em vez de usar OFFSET,
+    // então qualquer página custa o mesmo que a primeira. Sem consulta de contagem.
+    @Override
+    public List<Lancamento> buscarPorCursor(Specification<Lancamento> especificacao, CursorLancamento cursor, boolean decrescente, int limite) {
+        Specification<Lancamento> condicao = Specification.where(especificacao);
+        if (cursor != null) {
+            condicao = condicao.and(LancamentoSpecifications.aposCursor(cursor, decrescente));
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Lancamento> query = cb.createQuery(Lancamento.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        Predicate predicado = condicao.toPredicate(root, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        query.orderBy(
+                ordem(cb, root.get("ano"), decrescente),
+                ordem(cb, root.get("mes"), decrescente),
+                ordem(cb, root.get("id"), decrescente));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    // Mais próximos primeiro pela distância equirretangular, que basta para ordenar em áreas pequenas;
+    // a distância exata fica para quem chama
+    @Override
+    public List<Lancamento> buscarPorProximidade(Specification<Lancamento> especificacao, double latitude, double longitude, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Lancamento> query = cb.createQuery(Lancamento.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        Predicate predicado = especificacao.toPredicate(root, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+
+        BigDecimal escalaLongitude = BigDecimal.valueOf(Math.cos(Math.toRadians(latitude)));
+        Expression<BigDecimal> deltaLatitude = cb.diff(root.<BigDecimal>get("latitude"), BigDecimal.valueOf(latitude));
+        Expression<BigDecimal> deltaLongitude = cb.prod(cb.diff(root.<BigDecimal>get("longitude"), BigDecimal.valueOf(longitude)), escalaLongitude);
+        query.orderBy(
+                cb.asc(cb.sum(cb.prod(deltaLatitude, deltaLatitude), cb.prod(deltaLongitude, deltaLongitude))),
+                cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    // Uma linha por célula: o prefixo do geohash com a precisão pedida, com quantidade, soma dos valores e centroide
+    @Override
+    public List<AgrupamentoGeograficoDTO> agruparPorCelula(Specification<Lancamento> especificacao, int precisao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AgrupamentoGeograficoDTO> query = cb.createQuery(AgrupamentoGeograficoDTO.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+        Path<String> geohash = root.get("geohash");
+        Expression<String> celula = cb.substring(geohash, 1, precisao);
+
+        Predicate predicado = especificacao.toPredicate(root, query, cb);
+        query.where(predicado != null ? cb.and(predicado, cb.isNotNull(geohash)) : cb.isNotNull(geohash));
+        query.select(cb.construct(AgrupamentoGeograficoDTO.class,
+                celula,
+                cb.count(root),
+                cb.sum(root.<BigDecimal>get("valor")),
+                cb.avg(root.<BigDecimal>get("latitude")),
+                cb.avg(root.<BigDecimal>get("longitude"))));
+        query.groupBy(celula);
+        query.orderBy(cb.asc(celula));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    // SELECT ... FOR UPDATE dos lançamentos da especificação, antes de agrupá-los e alterá-los na mesma transação:
+    // sem o bloqueio, outra transação pode mudar valor ou categoria entre a leitura e o UPDATE/DELETE.
+    // O agrupamento não pode ser bloqueado diretamente (o PostgreSQL não aceita FOR UPDATE com GROUP BY).
+    @Override
+    public int bloquear(Specification<Lancamento> especificacao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        Predicate predicado = especificacao.toPredicate(root, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        query.select(root.<Long>get("id"));
+
+        return entityManager.createQuery(query).setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList().size();
+    }
+
+    // Contribuição ao resumo (e ao saldo) dos lançamentos da especificação, uma linha por célula do resumo.
+    // As operações em conjunto leem com a mesma especificação usada na escrita, antes dela.
+    @Override
+    public List<ContribuicaoResumo> agruparContribuicoes(Specification<Lancamento> especificacao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ContribuicaoResumo> query = cb.createQuery(ContribuicaoResumo.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+        List<Expression<?>> celula = Arrays.asList(
+                root.get("usuario").get("id"), root.get("ano"), root.get("mes"), root.get("tipo"), root.get("status"), root.get("categoria").get("id"));
+
+        Predicate predicado = especificacao.toPredicate(root, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        query.select(cb.construct(ContribuicaoResumo.class,
+                celula.get(0), celula.get(1), celula.get(2), celula.get(3), celula.get(4), celula.get(5),
+                cb.count(root),
+                cb.sum(root.<BigDecimal>get("valor"))));
+        query.groupBy(celula);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    // Um único UPDATE para todos os lançamentos da especificação. As especificações usadas aqui só podem depender
+    // do root, porque um CriteriaUpdate não tem CriteriaQuery para passar a elas.
+    @Override
+    public int atualizarStatus(Specification<Lancamento> especificacao, StatusLancamento status) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Lancamento> update = cb.createCriteriaUpdate(Lancamento.class);
+        Root<Lancamento> root = update.from(Lancamento.class);
+        update.set(root.<StatusLancamento>get("status"), status);
+
+        Predicate predicado = especificacao.toPredicate(root, null, cb);
+        if (predicado != null) {
+            update.where(predicado);
+        }
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    // Um único DELETE, com a mesma restrição de atualizarStatus sobre as especificações
+    @Override
+    public int deletar(Specification<Lancamento> especificacao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Lancamento> delete = cb.createCriteriaDelete(Lancamento.class);
+        Root<Lancamento> root = delete.from(Lancamento.class);
+
+        Predicate predicado = especificacao.toPredicate(root, null, cb);
+        if (predicado != null) {
+            delete.where(predicado);
+        }
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    private Order ordem(CriteriaBuilder cb, Path<?> caminho, boolean decrescente) {
+        return decrescente ? cb.desc(caminho) : cb.asc(caminho);
+    }
+
+    // No PostgreSQL usa a busca textual (tsvector) ordenada por ts_rank; nos demais bancos (H2 nos testes)
+    // busca por LIKE e ordena pela posição do termo na descrição
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Lancamento> buscarPorTextoRanqueado(Long idUsuario, String termo, int limite) {
+        if (bancoDeDados.isPostgres()) {
+            return entityManager.createNativeQuery(SQL_BUSCA_TEXTO_POSTGRES, Lancamento.class)
+                    .setParameter("idUsuario", idUsuario)
+                    .setParameter("termo", termo)
+                    .setMaxResults(limite)
+                    .getResultList();
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Lancamento> query = cb.createQuery(Lancamento.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        LancamentoFiltro filtro = LancamentoFiltro.builder().idUsuario(idUsuario).descricao(termo).build();
+        query.where(LancamentoSpecifications.filtro(filtro).toPredicate(root, query, cb));
+        query.orderBy(
+                cb.asc(cb.locate(cb.lower(root.get("descricao")), termo.toLowerCase())),
+                cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    // Cursor somente-avançar: as linhas chegam do banco em blocos de tamanhoFetch e cada lançamento
+    // é desanexado do contexto de persistência ao ser consumido, então a memória não cresce com o resultado.
+    // Usuário e categoria vêm no mesmo select para não disparar uma consulta por linha.
+    // Deve ser consumido dentro de uma transação (no PostgreSQL o cursor só existe com autocommit desligado).
+    @Override
+    public Stream<Lancamento> streamPorFiltro(Specification<Lancamento> especificacao, int tamanhoFetch) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Lancamento> query = cb.createQuery(Lancamento.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+        root.fetch("usuario", JoinType.LEFT);
+        root.fetch("categoria", JoinType.LEFT);
+
+        Predicate predicado = Specification.where(especificacao).toPredicate(root, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        query.orderBy(cb.asc(root.get("ano")), cb.asc(root.get("mes")), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, tamanhoFetch)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    // INSERT em lote via JDBC, com ids do mesmo gerador (pooled) usado pelo Hibernate. Os lançamentos precisam ter hashImportacao
+    // e ser todos do mesmo usuário. Devolve quantos foram gravados; os descartados como duplicados ficam com id nulo.
+    // No PostgreSQL a deduplicação é feita pelo ON CONFLICT; nos demais bancos (H2 nos testes) os hashes já gravados
+    // são consultados antes, e o índice único continua protegendo contra importações simultâneas.
+    @Override
+    public int inserirIgnorandoDuplicados(List<Lancamento> lancamentos) {
+        boolean postgres = bancoDeDados.isPostgres();
+        List<Lancamento> candidatos = postgres ? lancamentos : semHashesGravados(lancamentos);
+        if (candidatos.isEmpty()) {
+            return 0;
+        }
+
+        SessionImplementor sessao = entityManager.unwrap(SessionImplementor.class);
+        IdentifierGenerator gerador = sessao.getFactory().getMetamodel().entityPersister(Lancamento.class).getIdentifierGenerator();
+        for (Lancamento lancamento : candidatos) {
+            lancamento.setId((Long) gerador.generate(sessao, lancamento));
+        }
+
+        int[] resultados = sessao.doReturningWork(conexao -> {
+            try (PreparedStatement comando = conexao.prepareStatement(postgres ? SQL_INSERIR_POSTGRES : SQL_INSERIR)) {
+                for (Lancamento lancamento : candidatos) {
+                    preencher(comando, lancamento);
+                    comando.addBatch();
+                }
+                return comando.executeBatch();
+            }
+        });
+
+        // O driver pode devolver SUCCESS_NO_INFO, que não diz se o ON CONFLICT descartou a linha. Como os ids acabaram
+        // de sair do gerador, um id que existe na tabela só pode ter sido gravado por este lote.
+        List<Long> semInformacao = new ArrayList<>();
+        for (int i = 0; i < resultados.length; i++) {
+            if (resultados[i] == Statement.SUCCESS_NO_INFO) {
+                semInformacao.add(candidatos.get(i).getId());
+            }
+        }
+        Set<Long> gravados = semInformacao.isEmpty() ? Collections.emptySet() : new HashSet<>(entityManager.createQuery(
+                " select l.id from Lancamento l where l.id in :ids ", Long.class)
+                .setParameter("ids", semInformacao)
+                .getResultList());
+
+        int inseridos = 0;
+        for (int i = 0; i < resultados.length; i++) {
+            Lancamento candidato = candidatos.get(i);
+            if (resultados[i] > 0 || gravados.contains(candidato.getId())) {
+                inseridos++;
+            } else {
+                candidato.setId(null);
+            }
+        }
+        return inseridos;
+    }
+
+    private List<Lancamento> semHashesGravados(List<Lancamento> lancamentos) {
+        if (lancamentos.isEmpty()) {
+            return lancamentos;
+        }
+
+        List<String> hashes = lancamentos.stream().map(Lancamento::getHashImportacao).collect(Collectors.toList());
+        Set<String> gravados = new HashSet<>(entityManager.createQuery(
+                " select l.hashImportacao from Lancamento l where l.usuario.id = :idUsuario and l.hashImportacao in :hashes ", String.class)
+                .setParameter("idUsuario", lancamentos.get(0).getUsuario().getId())
+                .setParameter("hashes", hashes)
+                .getResultList());
+
+        return lancamentos.stream()
+                .filter(lancamento -> !gravados.contains(lancamento.getHashImportacao()))
+                .collect(Collectors.toList());
+    }
+
+    private void preencher(PreparedStatement comando, Lancamento lancamento) throws SQLException {
+        comando.setLong(1, lancamento.getId());
+        comando.setString(2, lancamento.getDescricao());
+        comando.setObject(3, lancamento.getMes(), Types.INTEGER);
+        comando.setObject(4, lancamento.getAno(), Types.INTEGER);
+        comando.setObject(5, lancamento.getUsuario() != null ? lancamento.getUsuario().getId() : null, Types.BIGINT);
+        comando.setObject(6, lancamento.getValor(), Types.NUMERIC);
+        comando.setObject(7, lancamento.getDataCadastro() != null ? Date.valueOf(lancamento.getDataCadastro()) : null, Types.DATE);
+        comando.setObject(8, lancamento.getTipo() != null ? lancamento.getTipo().name() : null, Types.VARCHAR);
+        comando.setObject(9, lancamento.getStatus() != null ? lancamento.getStatus().name() : null, Types.VARCHAR);
+        comando.setObject(10, lancamento.getCategoria() != null ? lancamento.getCategoria().getId() : null, Types.BIGINT);
+        comando.setObject(11, lancamento.getLatitude(), Types.NUMERIC);
+        comando.setObject(12, lancamento.getLongitude(), Types.NUMERIC);
+        comando.setString(13, lancamento.getHashImportacao());
+        comando.setString(14, Geohash.codificar(lancamento.getLatitude(), lancamento.getLongitude()));
+    }
+}
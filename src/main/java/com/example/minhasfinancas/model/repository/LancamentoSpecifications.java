@@ -0,0 +1,119 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class LancamentoSpecifications {
+
+    private static final char ESCAPE = '\\';
+    private static final int MAXIMO_CELULAS_AREA = 32;
+
+    private LancamentoSpecifications() {
+    }
+
+    public static Specification<Lancamento> filtro(LancamentoFiltro filtro) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+
+            if (filtro.getIdUsuario() != null) {
+                predicados.add(cb.equal(root.get("usuario").get("id"), filtro.getIdUsuario()));
+            }
+            if (filtro.getDescricao() != null && !filtro.getDescricao().isEmpty()) {
+                String padrao = "%" + escaparLike(filtro.getDescricao().toLowerCase()) + "%";
+                predicados.add(cb.like(cb.lower(root.get("descricao")), padrao, ESCAPE));
+            }
+            if (filtro.getMes() != null) {
+                predicados.add(cb.equal(root.get("mes"), filtro.getMes()));
+            }
+            if (filtro.getAno() != null) {
+                predicados.add(cb.equal(root.get("ano"), filtro.getAno()));
+            }
+            if (filtro.getCategoriaId() != null) {
+                predicados.add(cb.equal(root.get("categoria").get("id"), filtro.getCategoriaId()));
+            }
+            if (filtro.getTipo() != null) {
+                predicados.add(cb.equal(root.get("tipo"), filtro.getTipo()));
+            }
+
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Lancamento> porIds(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Lancamento> pendentes() {
+        return (root, query, cb) -> cb.equal(root.get("status"), StatusLancamento.PENDENTE);
+    }
+
+    // Lançamentos de meses até o informado, inclusive (os que podem ser efetivados)
+    public static Specification<Lancamento> ateOMes(int ano, int mes) {
+        return (root, query, cb) -> {
+            Path<Integer> anoLancamento = root.get("ano");
+            return cb.or(
+                    cb.lessThan(anoLancamento, ano),
+                    cb.and(cb.equal(anoLancamento, ano), cb.lessThanOrEqualTo(root.get("mes"), mes)));
+        };
+    }
+
+    // Lançamentos que vêm depois do cursor na ordem (ano, mes, id), crescente ou decrescente.
+    // O OR sozinho não vira uma faixa no índice (id_usuario, ano, mes, id); a condição redundante sobre o ano
+    // (ano <= cursor no decrescente, >= no crescente) limita a leitura do índice ao que fica depois do cursor.
+    public static Specification<Lancamento> aposCursor(CursorLancamento cursor, boolean decrescente) {
+        return (root, query, cb) -> {
+            Path<Integer> ano = root.get("ano");
+            Path<Integer> mes = root.get("mes");
+            Path<Long> id = root.get("id");
+
+            Predicate limiteAno = decrescente ? cb.lessThanOrEqualTo(ano, cursor.getAno()) : cb.greaterThanOrEqualTo(ano, cursor.getAno());
+            return cb.and(limiteAno, cb.or(
+                    depois(cb, ano, cursor.getAno(), decrescente),
+                    cb.and(cb.equal(ano, cursor.getAno()), depois(cb, mes, cursor.getMes(), decrescente)),
+                    cb.and(cb.equal(ano, cursor.getAno()), cb.equal(mes, cursor.getMes()), depois(cb, id, cursor.getId(), decrescente))));
+        };
+    }
+
+    // Lançamentos com coordenadas dentro da área. As faixas de geohash limitam a leitura do índice (id_usuario, geohash)
+    // a poucas faixas contíguas; a comparação com latitude e longitude descarta o que sobra das células nas bordas.
+    public static Specification<Lancamento> naArea(AreaGeografica area) {
+        return (root, query, cb) -> {
+            Path<String> geohash = root.get("geohash");
+            Path<BigDecimal> latitude = root.get("latitude");
+            Path<BigDecimal> longitude = root.get("longitude");
+
+            List<Predicate> retangulos = new ArrayList<>();
+            for (AreaGeografica retangulo : area.semCruzarAntimeridiano()) {
+                List<Predicate> faixas = new ArrayList<>();
+                for (Geohash.Faixa faixa : Geohash.cobrir(retangulo.getLatitudeMinima(), retangulo.getLongitudeMinima(),
+                        retangulo.getLatitudeMaxima(), retangulo.getLongitudeMaxima(), MAXIMO_CELULAS_AREA)) {
+                    Predicate inicio = cb.greaterThanOrEqualTo(geohash, faixa.getInicio());
+                    faixas.add(faixa.getFim() == null ? inicio : cb.and(inicio, cb.lessThan(geohash, faixa.getFim())));
+                }
+
+                retangulos.add(cb.and(
+                        cb.or(faixas.toArray(new Predicate[0])),
+                        cb.between(latitude, BigDecimal.valueOf(retangulo.getLatitudeMinima()), BigDecimal.valueOf(retangulo.getLatitudeMaxima())),
+                        cb.between(longitude, BigDecimal.valueOf(retangulo.getLongitudeMinima()), BigDecimal.valueOf(retangulo.getLongitudeMaxima()))));
+            }
+            return cb.or(retangulos.toArray(new Predicate[0]));
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate depois(CriteriaBuilder cb, Path<T> caminho, T valor, boolean decrescente) {
+        return decrescente ? cb.lessThan(caminho, valor) : cb.greaterThan(caminho, valor);
+    }
+
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
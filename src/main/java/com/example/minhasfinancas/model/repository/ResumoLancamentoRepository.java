@@ -0,0 +1,55 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.api.dto.ResumoLancamentoDTO;
+import com.example.minhasfinancas.model.entity.ResumoLancamento;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface ResumoLancamentoRepository extends JpaRepository<ResumoLancamento, Long>, ResumoLancamentoRepositoryCustom {
+
+    // Incremento atômico no banco, como em saldo_usuario: alterações concorrentes da mesma célula não se perdem
+    @Modifying
+    @Query(value = " update ResumoLancamento r set r.quantidade = r.quantidade + :quantidade, r.total = r.total + :valor " +
+            "where r.idUsuario = :idUsuario and r.ano = :ano and r.mes = :mes and r.tipo = :tipo " +
+            "and r.status = :status and r.idCategoria = :idCategoria ")
+    int adicionarACelula(
+            @Param("idUsuario") Long idUsuario,
+            @Param("ano") Integer ano,
+            @Param("mes") Integer mes,
+            @Param("tipo") TipoLancamento tipo,
+            @Param("status") StatusLancamento status,
+            @Param("idCategoria") Long idCategoria,
+            @Param("quantidade") Long quantidade,
+            @Param("valor") BigDecimal valor);
+
+    // O período vai como ano * 100 + mes; o filtro por ano mantém a leitura em uma faixa do índice único
+    @Query(value = " select new com.example.minhasfinancas.api.dto.ResumoLancamentoDTO(r.ano, r.mes, r.tipo, r.status, " +
+            "c.id, c.descricao, r.quantidade, r.total) " +
+            "from ResumoLancamento r left join Categoria c on c.id = r.idCategoria " +
+            "where r.idUsuario = :idUsuario and r.ano between :anoInicio and :anoFim " +
+            "and r.ano * 100 + r.mes between :inicio and :fim and r.quantidade > 0 " +
+            "order by r.ano, r.mes, r.tipo, r.status, r.idCategoria ")
+    List<ResumoLancamentoDTO> obterResumoPorPeriodo(
+            @Param("idUsuario") Long idUsuario,
+            @Param("anoInicio") Integer anoInicio,
+            @Param("anoFim") Integer anoFim,
+            @Param("inicio") Integer inicio,
+            @Param("fim") Integer fim);
+
+    boolean existsByIdUsuario(Long idUsuario);
+
+    // SELECT ... FOR UPDATE: os incrementos das células lidas esperam até o fim da transação que as leu
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = " select r from ResumoLancamento r ")
+    List<ResumoLancamento> obterTodasParaAtualizacao();
+
+}
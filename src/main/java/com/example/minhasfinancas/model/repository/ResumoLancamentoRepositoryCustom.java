@@ -0,0 +1,8 @@
+package com.example.minhasfinancas.model.repository;
+
+public interface ResumoLancamentoRepositoryCustom {
+
+    void criarOuAdicionarACelula(ContribuicaoResumo calculada, ContribuicaoResumo variacao);
+
+    void criarCelulaSeAusente(ContribuicaoResumo calculada);
+}
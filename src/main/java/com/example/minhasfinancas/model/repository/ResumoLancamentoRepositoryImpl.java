@@ -0,0 +1,81 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.config.BancoDeDados;
+import com.example.minhasfinancas.model.entity.ResumoLancamento;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+// Criação de células que pode acontecer ao mesmo tempo em transações diferentes (duas importações do mesmo mês,
+// ou a reconciliação em mais de uma instância). No PostgreSQL o conflito no índice único é resolvido pelo próprio
+// INSERT, sem abortar a transação; nos demais bancos (H2 nos testes) a célula é apenas gravada.
+public class ResumoLancamentoRepositoryImpl implements ResumoLancamentoRepositoryCustom {
+
+    private static final String SQL_INSERIR =
+            " insert into financas.resumo_lancamento (id_usuario, ano, mes, tipo, status, id_categoria, quantidade, total) " +
+            " values (:idUsuario, :ano, :mes, :tipo, :status, :idCategoria, :quantidade, :total) " +
+            " on conflict (id_usuario, ano, mes, tipo, status, id_categoria) ";
+
+    // Se outra transação criou a célula antes, o valor calculado aqui já não vale, mas a variação continua valendo
+    private static final String SQL_INSERIR_OU_ADICIONAR = SQL_INSERIR +
+            " do update set quantidade = resumo_lancamento.quantidade + :variacaoQuantidade, " +
+            " total = resumo_lancamento.total + :variacaoValor ";
+
+    private static final String SQL_INSERIR_SE_AUSENTE = SQL_INSERIR + " do nothing ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BancoDeDados bancoDeDados;
+
+    public ResumoLancamentoRepositoryImpl(BancoDeDados bancoDeDados) {
+        this.bancoDeDados = bancoDeDados;
+    }
+
+    @Override
+    public void criarOuAdicionarACelula(ContribuicaoResumo calculada, ContribuicaoResumo variacao) {
+        if (!bancoDeDados.isPostgres()) {
+            entityManager.persist(novaCelula(calculada));
+            return;
+        }
+        preencher(entityManager.createNativeQuery(SQL_INSERIR_OU_ADICIONAR), calculada)
+                .setParameter("variacaoQuantidade", variacao.getQuantidade())
+                .setParameter("variacaoValor", variacao.getValor())
+                .executeUpdate();
+    }
+
+    @Override
+    public void criarCelulaSeAusente(ContribuicaoResumo calculada) {
+        if (!bancoDeDados.isPostgres()) {
+            entityManager.persist(novaCelula(calculada));
+            return;
+        }
+        preencher(entityManager.createNativeQuery(SQL_INSERIR_SE_AUSENTE), calculada).executeUpdate();
+    }
+
+    private Query preencher(Query query, ContribuicaoResumo celula) {
+        return query
+                .setParameter("idUsuario", celula.getIdUsuario())
+                .setParameter("ano", celula.getAno())
+                .setParameter("mes", celula.getMes())
+                .setParameter("tipo", celula.getTipo().name())
+                .setParameter("status", celula.getStatus().name())
+                .setParameter("idCategoria", celula.getIdCategoria())
+                .setParameter("quantidade", celula.getQuantidade())
+                .setParameter("total", celula.getValor());
+    }
+
+    private ResumoLancamento novaCelula(ContribuicaoResumo contribuicao) {
+        return ResumoLancamento.builder()
+                .idUsuario(contribuicao.getIdUsuario())
+                .ano(contribuicao.getAno())
+                .mes(contribuicao.getMes())
+                .tipo(contribuicao.getTipo())
+                .status(contribuicao.getStatus())
+                .idCategoria(contribuicao.getIdCategoria())
+                .quantidade(contribuicao.getQuantidade())
+                .total(contribuicao.getValor())
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.model.entity.SaldoUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long>, SaldoUsuarioRepositoryCustom {
+
+    // Incremento atômico no banco: atualizações concorrentes do mesmo usuário não se perdem
+    @Modifying
+    @Query(value = " update SaldoUsuario s set s.saldo = s.saldo + :valor where s.idUsuario = :idUsuario ")
+    int adicionarAoSaldo(@Param("idUsuario") Long idUsuario, @Param("valor") BigDecimal valor);
+
+    // SELECT ... FOR UPDATE: os incrementos dos saldos lidos esperam até o fim da transação que os leu
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = " select s from SaldoUsuario s ")
+    List<SaldoUsuario> obterTodosParaAtualizacao();
+
+}
@@ -0,0 +1,10 @@
+package com.example.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+
+public interface SaldoUsuarioRepositoryCustom {
+
+    void criarOuAdicionarAoSaldo(Long idUsuario, BigDecimal saldoCalculado, BigDecimal variacao);
+
+    void criarSaldoSeAusente(Long idUsuario, BigDecimal saldoCalculado);
+}
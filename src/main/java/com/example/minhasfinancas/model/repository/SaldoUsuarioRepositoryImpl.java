@@ -0,0 +1,55 @@
+package com.example.minhasfinancas.model.repository;
+
+import com.example.minhasfinancas.config.BancoDeDados;
+import com.example.minhasfinancas.model.entity.SaldoUsuario;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+
+// Criação do saldo que pode acontecer ao mesmo tempo em transações diferentes, como em ResumoLancamentoRepositoryImpl:
+// no PostgreSQL o conflito na chave primária é resolvido pelo próprio INSERT; nos demais bancos o saldo é apenas gravado.
+public class SaldoUsuarioRepositoryImpl implements SaldoUsuarioRepositoryCustom {
+
+    private static final String SQL_INSERIR =
+            " insert into financas.saldo_usuario (id_usuario, saldo) values (:idUsuario, :saldo) on conflict (id_usuario) ";
+
+    // Se outra transação criou o saldo antes, o valor calculado aqui já não vale, mas a variação continua valendo
+    private static final String SQL_INSERIR_OU_ADICIONAR = SQL_INSERIR + " do update set saldo = saldo_usuario.saldo + :variacao ";
+
+    private static final String SQL_INSERIR_SE_AUSENTE = SQL_INSERIR + " do nothing ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BancoDeDados bancoDeDados;
+
+    public SaldoUsuarioRepositoryImpl(BancoDeDados bancoDeDados) {
+        this.bancoDeDados = bancoDeDados;
+    }
+
+    @Override
+    public void criarOuAdicionarAoSaldo(Long idUsuario, BigDecimal saldoCalculado, BigDecimal variacao) {
+        if (!bancoDeDados.isPostgres()) {
+            entityManager.persist(new SaldoUsuario(idUsuario, saldoCalculado));
+            return;
+        }
+        entityManager.createNativeQuery(SQL_INSERIR_OU_ADICIONAR)
+                .setParameter("idUsuario", idUsuario)
+                .setParameter("saldo", saldoCalculado)
+                .setParameter("variacao", variacao)
+                .executeUpdate();
+    }
+
+    @Override
+    public void criarSaldoSeAusente(Long idUsuario, BigDecimal saldoCalculado) {
+        if (!bancoDeDados.isPostgres()) {
+            entityManager.persist(new SaldoUsuario(idUsuario, saldoCalculado));
+            return;
+        }
+        entityManager.createNativeQuery(SQL_INSERIR_SE_AUSENTE)
+                .setParameter("idUsuario", idUsuario)
+                .setParameter("saldo", saldoCalculado)
+                .executeUpdate();
+    }
+}
@@ -2,13 +2,23 @@ package com.example.minhasfinancas.model.repository;
 
 import com.example.minhasfinancas.model.entity.Usuario;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
+    String CACHE_POR_ID = "usuarios";
+    String CACHE_POR_EMAIL = "usuariosPorEmail";
+
     boolean existsByEmail(String email);
 
+    // Usuário não encontrado não é guardado em cache, para que um cadastro novo seja visto imediatamente
+    @Cacheable(cacheNames = CACHE_POR_EMAIL, key = "#p0", unless = "#result == null")
     Optional<Usuario> findByEmail(String email);
+
+    @Override
+    @Cacheable(cacheNames = CACHE_POR_ID, key = "#p0", unless = "#result == null")
+    Optional<Usuario> findById(Long id);
 }
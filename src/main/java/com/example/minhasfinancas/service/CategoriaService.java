@@ -14,4 +14,8 @@ public interface CategoriaService {
     Optional<Categoria> obterPorId(Long id);
 
     Optional<Categoria> obterPorDescricao(String descricao);
+
+    String obterVersaoCatalogo();
+
+    void recarregarCatalogo();
 }
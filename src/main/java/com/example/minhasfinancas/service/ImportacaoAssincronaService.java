@@ -0,0 +1,16 @@
+package com.example.minhasfinancas.service;
+
+import com.example.minhasfinancas.api.dto.ImportacaoJobDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.Optional;
+
+public interface ImportacaoAssincronaService {
+
+    ImportacaoJobDTO iniciar(MultipartFile file, Long usuarioId) throws IOException;
+
+    Optional<ImportacaoJobDTO> obterStatus(String id, Long usuarioId);
+
+    void removerFinalizadas();
+}
@@ -4,12 +4,16 @@ import com.example.minhasfinancas.model.entity.Usuario;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 
+import java.util.Optional;
+
 public interface JwtService {
 
     String gerarToken(Usuario usuario);
 
         Claims obterClaims(String token) throws ExpiredJwtException;
 
+        Optional<Claims> obterClaimsValidas(String token);
+
         boolean isTokenValido(String token);
 
         String obterLoginUsuario(String token);
@@ -1,15 +1,23 @@
 package com.example.minhasfinancas.service;
 
+import com.example.minhasfinancas.api.dto.AgrupamentoGeograficoDTO;
 import com.example.minhasfinancas.api.dto.ImportacaoResultadoDTO;
+import com.example.minhasfinancas.api.dto.PaginaLancamentosDTO;
+import com.example.minhasfinancas.api.dto.ResumoLancamentoDTO;
 import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.enums.FormatoExportacao;
 import com.example.minhasfinancas.model.enums.StatusLancamento;
-import com.opencsv.exceptions.CsvValidationException;
+import com.example.minhasfinancas.model.repository.AreaGeografica;
+import com.example.minhasfinancas.model.repository.LancamentoFiltro;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.IntConsumer;
 
 public interface LancamentoService {
 
@@ -19,9 +27,33 @@ public interface LancamentoService {
 
     void deletar(Lancamento lancamento);
 
-    List<Lancamento> buscar(Lancamento lancamentoFiltro);
+    List<Lancamento> salvarEmLote(List<Lancamento> lancamentos);
 
-    void atualizarStatus(Lancamento lancamento, StatusLancamento status);
+    List<Lancamento> buscarPorIds(Long idUsuario, List<Long> ids);
+
+    int atualizarStatusEmLote(Long idUsuario, List<Long> ids, StatusLancamento status);
+
+    int deletarEmLote(Long idUsuario, List<Long> ids);
+
+    int deletarPorFiltro(LancamentoFiltro filtro);
+
+    List<Lancamento> buscar(LancamentoFiltro filtro);
+
+    PaginaLancamentosDTO buscarPagina(LancamentoFiltro filtro, String cursor, int tamanho, boolean decrescente);
+
+    List<Lancamento> buscarPorDescricao(Long idUsuario, String termo, boolean ranqueado, int limite);
+
+    List<Lancamento> buscarNaArea(Long idUsuario, AreaGeografica area, int limite);
+
+    List<Lancamento> buscarProximos(Long idUsuario, double latitude, double longitude, double raioMetros, int limite);
+
+    List<AgrupamentoGeograficoDTO> agruparNoMapa(Long idUsuario, int zoom, AreaGeografica area);
+
+    boolean existeLancamento(LancamentoFiltro filtro);
+
+    void exportar(LancamentoFiltro filtro, FormatoExportacao formato, OutputStream saida) throws IOException;
+
+    boolean transicionarStatus(Long id, StatusLancamento status);
 
     void validar(Lancamento lancamento);
 
@@ -29,6 +61,16 @@ public interface LancamentoService {
 
     BigDecimal obterSaldoPorUsuario(Long id);
 
-    ImportacaoResultadoDTO importarLancamentosCSV(MultipartFile file, Long usuarioId) throws IOException, CsvValidationException;
+    List<ResumoLancamentoDTO> obterResumo(Long idUsuario, int anoInicio, int mesInicio, int anoFim, int mesFim);
+
+    ImportacaoResultadoDTO importarLancamentosCSV(MultipartFile file, Long usuarioId) throws IOException;
+
+    ImportacaoResultadoDTO importarLancamentosCSVEmLotes(MultipartFile file, Long usuarioId) throws IOException;
+
+    ImportacaoResultadoDTO importarLancamentosCSVEmLotes(InputStream conteudo, Long usuarioId, IntConsumer progresso) throws IOException;
+
+    ImportacaoResultadoDTO importarLancamentosCSVSemDuplicados(MultipartFile file, Long usuarioId) throws IOException;
+
+    void validarArquivoCSV(MultipartFile file);
 
 }
@@ -0,0 +1,22 @@
+package com.example.minhasfinancas.service;
+
+import com.example.minhasfinancas.api.dto.ReconciliacaoResumoDTO;
+import com.example.minhasfinancas.api.dto.ResumoLancamentoDTO;
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.repository.ContribuicaoResumo;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ResumoLancamentoService {
+
+    void atualizarResumo(ContribuicaoResumo anterior, ContribuicaoResumo atual);
+
+    void atualizarResumo(Collection<ContribuicaoResumo> anteriores, Collection<ContribuicaoResumo> atuais);
+
+    void adicionarAoResumo(Collection<Lancamento> lancamentos);
+
+    List<ResumoLancamentoDTO> obterResumo(Long idUsuario, int anoInicio, int mesInicio, int anoFim, int mesFim);
+
+    ReconciliacaoResumoDTO reconciliar();
+}
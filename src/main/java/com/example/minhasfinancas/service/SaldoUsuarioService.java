@@ -0,0 +1,16 @@
+package com.example.minhasfinancas.service;
+
+import com.example.minhasfinancas.api.dto.ReconciliacaoSaldoDTO;
+import com.example.minhasfinancas.model.repository.ContribuicaoSaldo;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface SaldoUsuarioService {
+
+    void atualizarSaldo(ContribuicaoSaldo anterior, ContribuicaoSaldo atual);
+
+    Optional<BigDecimal> obterSaldo(Long idUsuario);
+
+    ReconciliacaoSaldoDTO reconciliar();
+}
@@ -0,0 +1,21 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.service.CategoriaService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Recarrega periodicamente o catálogo de categorias, para refletir gravações feitas por outras instâncias
+@Component
+public class AtualizacaoCatalogoCategoriasJob {
+
+    private final CategoriaService categoriaService;
+
+    public AtualizacaoCatalogoCategoriasJob(CategoriaService categoriaService) {
+        this.categoriaService = categoriaService;
+    }
+
+    @Scheduled(fixedDelayString = "${categorias.catalogo.atualizacao-ms:300000}", initialDelayString = "${categorias.catalogo.atualizacao-ms:300000}")
+    public void recarregar() {
+        categoriaService.recarregarCatalogo();
+    }
+}
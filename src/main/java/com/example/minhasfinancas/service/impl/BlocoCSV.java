@@ -0,0 +1,61 @@
+package com.example.minhasfinancas.service.impl;
+
+import java.util.Arrays;
+
+// Registros de CSV ainda não convertidos: os caracteres de todos os registros ficam num único char[]
+// e o bloco guarda só a posição onde cada registro termina
+class BlocoCSV {
+
+    private static final int CARACTERES_POR_REGISTRO = 64;
+
+    private char[] dados;
+    private int tamanho;
+    private int[] fins;
+    private int registros;
+
+    BlocoCSV(int capacidadeRegistros) {
+        this.dados = new char[capacidadeRegistros * CARACTERES_POR_REGISTRO];
+        this.fins = new int[capacidadeRegistros];
+    }
+
+    void adicionar(char[] origem, int inicio, int quantidade) {
+        if (tamanho + quantidade > dados.length) {
+            dados = Arrays.copyOf(dados, Math.max(dados.length * 2, tamanho + quantidade));
+        }
+        System.arraycopy(origem, inicio, dados, tamanho, quantidade);
+        tamanho += quantidade;
+    }
+
+    void fecharRegistro() {
+        // O \r de quebras de linha CRLF não faz parte do registro
+        int inicio = registros == 0 ? 0 : fins[registros - 1];
+        if (tamanho > inicio && dados[tamanho - 1] == '\r') {
+            tamanho--;
+        }
+        if (registros == fins.length) {
+            fins = Arrays.copyOf(fins, fins.length * 2);
+        }
+        fins[registros++] = tamanho;
+    }
+
+    void limpar() {
+        tamanho = 0;
+        registros = 0;
+    }
+
+    char[] getDados() {
+        return dados;
+    }
+
+    int getRegistros() {
+        return registros;
+    }
+
+    int inicio(int registro) {
+        return registro == 0 ? 0 : fins[registro - 1];
+    }
+
+    int fim(int registro) {
+        return fins[registro];
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.model.entity.Categoria;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+// Retrato imutável das categorias, indexado por id e por descrição normalizada.
+// Nunca é alterado depois de criado: cada mudança gera um novo catálogo, trocado atomicamente pelo serviço.
+// As categorias devolvidas são compartilhadas entre requisições e não devem ser modificadas.
+final class CatalogoCategorias {
+
+    private static final char SEPARADOR_CAMPO = '\u001f';
+    private static final char SEPARADOR_REGISTRO = '\u001e';
+
+    private final List<Categoria> categorias;
+    private final Map<Long, Categoria> porId;
+    private final Map<String, Categoria> porDescricao;
+    private final String versao;
+
+    private CatalogoCategorias(List<Categoria> categorias) {
+        Map<Long, Categoria> porId = new HashMap<>();
+        Map<String, Categoria> porDescricao = new HashMap<>();
+        for (Categoria categoria : categorias) {
+            porId.put(categoria.getId(), categoria);
+            if (categoria.getDescricao() != null) {
+                porDescricao.putIfAbsent(normalizar(categoria.getDescricao()), categoria);
+            }
+        }
+        this.categorias = Collections.unmodifiableList(categorias);
+        this.porId = porId;
+        this.porDescricao = porDescricao;
+        this.versao = calcularVersao(categorias);
+    }
+
+    // SHA-256 dos campos devolvidos na listagem, na ordem por id: catálogos diferentes não compartilham a ETag,
+    // o que um hashCode() de 32 bits não garante
+    private static String calcularVersao(List<Categoria> categorias) {
+        StringBuilder conteudo = new StringBuilder(categorias.size() * 32);
+        for (Categoria categoria : categorias) {
+            conteudo.append(categoria.getId()).append(SEPARADOR_CAMPO);
+            // A marca distingue descrição nula de descrição vazia
+            if (categoria.getDescricao() != null) {
+                conteudo.append('"').append(categoria.getDescricao());
+            }
+            conteudo.append(SEPARADOR_REGISTRO);
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(conteudo.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível.", e);
+        }
+    }
+
+    static CatalogoCategorias de(Collection<Categoria> categorias) {
+        List<Categoria> ordenadas = new ArrayList<>();
+        for (Categoria categoria : categorias) {
+            if (categoria.getId() != null) {
+                ordenadas.add(categoria);
+            }
+        }
+        ordenadas.sort(Comparator.comparing(Categoria::getId));
+        return new CatalogoCategorias(ordenadas);
+    }
+
+    // Novo catálogo com a categoria incluída (ou substituída, se o id já existir)
+    CatalogoCategorias com(Categoria categoria) {
+        if (categoria.getId() == null) {
+            return this;
+        }
+        Map<Long, Categoria> atualizadas = new HashMap<>(porId);
+        atualizadas.put(categoria.getId(), categoria);
+        return de(atualizadas.values());
+    }
+
+    List<Categoria> listar() {
+        return categorias;
+    }
+
+    Optional<Categoria> obterPorId(Long id) {
+        return Optional.ofNullable(porId.get(id));
+    }
+
+    Optional<Categoria> obterPorDescricao(String descricao) {
+        return descricao == null ? Optional.empty() : Optional.ofNullable(porDescricao.get(normalizar(descricao)));
+    }
+
+    String getVersao() {
+        return versao;
+    }
+
+    static String normalizar(String descricao) {
+        return descricao.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -6,9 +6,12 @@ import com.example.minhasfinancas.model.repository.LancamentoRepository;
 import com.example.minhasfinancas.service.CategoriaService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class CategoriaServiceImpl implements CategoriaService {
@@ -16,6 +19,9 @@ public class CategoriaServiceImpl implements CategoriaService {
     private final LancamentoRepository lancamentoRepository;
     private CategoriaRepository repository;
 
+    // Leituras usam sempre o retrato atual, sem bloqueio; gravações publicam um novo retrato
+    private final AtomicReference<CatalogoCategorias> catalogo = new AtomicReference<>();
+
     public CategoriaServiceImpl(CategoriaRepository repository, LancamentoRepository lancamentoRepository) {
         this.repository = repository;
         this.lancamentoRepository = lancamentoRepository;
@@ -38,20 +44,74 @@ public class CategoriaServiceImpl implements CategoriaService {
         }
 
         // Salva a categoria no banco de dados
-        return repository.save(categoria);
+        Categoria salva = repository.save(categoria);
+        publicarAposCommit(salva);
+        return salva;
     }
 
     @Override
     public List<Categoria> listar() {
-        return repository.findAll();
+        return obterCatalogo().listar();
     }
 
     public Optional<Categoria> obterPorId(Long id) {
-        return repository.findById(id);
+        Optional<Categoria> categoria = obterCatalogo().obterPorId(id);
+        if (categoria.isPresent()) {
+            return categoria;
+        }
+        // Categoria criada por outra instância depois da última recarga
+        return incluirNoCatalogo(repository.findById(id));
     }
 
     @Override
     public Optional<Categoria> obterPorDescricao(String descricao) {
-        return repository.findByDescricao(descricao);
+        Optional<Categoria> categoria = obterCatalogo().obterPorDescricao(descricao);
+        if (categoria.isPresent()) {
+            return categoria;
+        }
+        if (descricao == null) {
+            return categoria;
+        }
+        // Categoria criada depois da última recarga, procurada com a mesma normalização do catálogo
+        return incluirNoCatalogo(repository.findByDescricaoNormalizada(CatalogoCategorias.normalizar(descricao)).stream().findFirst());
+    }
+
+    @Override
+    public String obterVersaoCatalogo() {
+        return obterCatalogo().getVersao();
+    }
+
+    @Override
+    public void recarregarCatalogo() {
+        catalogo.set(CatalogoCategorias.de(repository.findAll()));
+    }
+
+    private CatalogoCategorias obterCatalogo() {
+        CatalogoCategorias atual = catalogo.get();
+        if (atual == null) {
+            recarregarCatalogo();
+            atual = catalogo.get();
+        }
+        return atual;
+    }
+
+    // Se o catálogo ainda não foi carregado, a primeira leitura já trará a categoria do banco
+    private Optional<Categoria> incluirNoCatalogo(Optional<Categoria> categoria) {
+        categoria.ifPresent(encontrada -> catalogo.updateAndGet(atual -> atual != null ? atual.com(encontrada) : null));
+        return categoria;
+    }
+
+    // A categoria só entra no catálogo se a transação for confirmada
+    private void publicarAposCommit(Categoria categoria) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            incluirNoCatalogo(Optional.ofNullable(categoria));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                incluirNoCatalogo(Optional.ofNullable(categoria));
+            }
+        });
     }
 }
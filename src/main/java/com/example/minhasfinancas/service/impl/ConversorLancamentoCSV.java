@@ -0,0 +1,326 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Converte um registro do layout de importação (descricao, mes, ano, valor, tipo, latitude, longitude, categoria)
+// lendo cada campo uma única vez, direto do char[] do bloco. Os campos são guardados como posições; só os campos
+// entre aspas são copiados, já sem as aspas, para um buffer de rascunho reaproveitado entre as linhas.
+// Os valores lidos na validação são os mesmos usados para montar o lançamento. Cada instância é de uma única thread.
+class ConversorLancamentoCSV {
+
+    private static final int COLUNAS = 8;
+    private static final int DESCRICAO = 0;
+    private static final int MES = 1;
+    private static final int ANO = 2;
+    private static final int VALOR = 3;
+    private static final int TIPO = 4;
+    private static final int LATITUDE = 5;
+    private static final int LONGITUDE = 6;
+    private static final int CATEGORIA = 7;
+
+    private final char[][] fontes = new char[COLUNAS][];
+    private final int[] inicios = new int[COLUNAS];
+    private final int[] fins = new int[COLUNAS];
+    private final List<String> errosLinha = new ArrayList<>();
+    private char[] rascunho = new char[256];
+    private int inteiro;
+    private int escapado;
+    private int posicaoSeparador;
+
+    LinhaImportacaoCSV converter(BlocoCSV bloco, int registro, int linhaAtual) {
+        return converter(bloco.getDados(), bloco.inicio(registro), bloco.fim(registro), linhaAtual);
+    }
+
+    LinhaImportacaoCSV converter(char[] dados, int inicio, int fim, int linhaAtual) {
+        int colunas = separarCampos(dados, inicio, fim);
+        if (colunas != COLUNAS) {
+            return LinhaImportacaoCSV.invalida(linhaAtual, "- Erro na linha " + linhaAtual + ": número incorreto de colunas (exigido: 8, encontrado: " + colunas + ").");
+        }
+
+        errosLinha.clear();
+
+        int tamanhoDescricao = tamanho(DESCRICAO);
+        if (tamanhoDescricao == 0 || tamanhoDescricao > 100) {
+            errosLinha.add("Coluna de descrição: Descrição inválida (vazia ou com mais de 100 caracteres).");
+        }
+
+        int mes = 0;
+        if (!lerInteiro(MES)) {
+            errosLinha.add("Coluna de mês: Formato inválido.");
+        } else {
+            mes = inteiro;
+            if (mes < 1 || mes > 12) {
+                errosLinha.add("Coluna de mês: Mês inválido (valor: " + mes + ").");
+            }
+        }
+
+        int ano = 0;
+        if (!lerInteiro(ANO)) {
+            errosLinha.add("Coluna de ano: Formato inválido.");
+        } else {
+            ano = inteiro;
+            if (quantidadeCaracteres(ano) != 4) {
+                errosLinha.add("Coluna de ano: Ano inválido (deve ter 4 dígitos, valor: " + ano + ").");
+            }
+        }
+
+        BigDecimal valor = lerDecimal(VALOR);
+        if (valor == null) {
+            errosLinha.add("Coluna de valor: Formato inválido.");
+        } else if (valor.signum() < 0) {
+            errosLinha.add("Coluna de valor: Valor não pode ser negativo (valor: " + valor + ").");
+        }
+
+        TipoLancamento tipo = null;
+        if (igualIgnorandoCaixa(TIPO, "RECEITA")) {
+            tipo = TipoLancamento.RECEITA;
+        } else if (igualIgnorandoCaixa(TIPO, "DESPESA")) {
+            tipo = TipoLancamento.DESPESA;
+        } else {
+            errosLinha.add("Coluna de tipo: Tipo de lançamento inválido (deve ser 'RECEITA' ou 'DESPESA', valor: " + texto(TIPO).toUpperCase() + ").");
+        }
+
+        if (!errosLinha.isEmpty()) {
+            return LinhaImportacaoCSV.invalida(linhaAtual, "- Erro(s) na linha " + linhaAtual + ":\n " + String.join("\n ", errosLinha));
+        }
+
+        Lancamento lancamento = new Lancamento();
+        lancamento.setDescricao(texto(DESCRICAO));
+        lancamento.setMes(mes);
+        lancamento.setAno(ano);
+        lancamento.setValor(valor);
+        lancamento.setLatitude(lerCoordenada(LATITUDE));
+        lancamento.setLongitude(lerCoordenada(LONGITUDE));
+        lancamento.setTipo(tipo);
+        lancamento.setStatus(StatusLancamento.PENDENTE);
+
+        String categoria = estaEmBranco(CATEGORIA) ? null : texto(CATEGORIA);
+        return LinhaImportacaoCSV.valida(linhaAtual, lancamento, categoria);
+    }
+
+    // Devolve o número de colunas do registro; as posições só são guardadas para as 8 primeiras.
+    // Segue o dialeto padrão do opencsv: espaços antes das aspas de abertura são descartados e a barra invertida
+    // escapa aspas e a si mesma (\" e \\); uma barra antes de qualquer outro caractere é descartada.
+    private int separarCampos(char[] dados, int inicio, int fim) {
+        if (rascunho.length < fim - inicio) {
+            rascunho = new char[Math.max(rascunho.length * 2, fim - inicio)];
+        }
+
+        int colunas = 0;
+        int usadoRascunho = 0;
+        int i = inicio;
+
+        while (true) {
+            char[] fonte;
+            int inicioCampo;
+            int fimCampo;
+
+            int aspas = i;
+            while (aspas < fim && dados[aspas] != '"' && dados[aspas] != ',' && Character.isWhitespace(dados[aspas])) {
+                aspas++;
+            }
+
+            if (aspas < fim && dados[aspas] == '"') {
+                // Campo entre aspas: copia sem as aspas, trocando "" por "
+                int k = usadoRascunho;
+                i = aspas + 1;
+                while (i < fim) {
+                    char c = dados[i];
+                    if (c == '\\') {
+                        i = escapar(dados, i, fim);
+                        if (escapado >= 0) {
+                            rascunho[k++] = (char) escapado;
+                        }
+                        continue;
+                    }
+                    if (c == '"') {
+                        if (i + 1 < fim && dados[i + 1] == '"') {
+                            rascunho[k++] = '"';
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        k = copiarAteSeparador(dados, i, fim, k);
+                        i = posicaoSeparador;
+                        break;
+                    }
+                    rascunho[k++] = c;
+                    i++;
+                }
+                fonte = rascunho;
+                inicioCampo = usadoRascunho;
+                fimCampo = k;
+                usadoRascunho = k;
+            } else {
+                int j = i;
+                while (j < fim && dados[j] != ',' && dados[j] != '\\') {
+                    j++;
+                }
+                if (j < fim && dados[j] == '\\') {
+                    // Campo com escape: deixa de apontar para o registro e passa a ser copiado
+                    int k = usadoRascunho;
+                    System.arraycopy(dados, i, rascunho, k, j - i);
+                    k = copiarAteSeparador(dados, j, fim, k + j - i);
+                    fonte = rascunho;
+                    inicioCampo = usadoRascunho;
+                    fimCampo = k;
+                    usadoRascunho = k;
+                    i = posicaoSeparador;
+                } else {
+                    fonte = dados;
+                    inicioCampo = i;
+                    fimCampo = j;
+                    i = j;
+                }
+            }
+
+            if (colunas < COLUNAS) {
+                fontes[colunas] = fonte;
+                inicios[colunas] = inicioCampo;
+                fins[colunas] = fimCampo;
+            }
+            colunas++;
+
+            if (i >= fim) {
+                return colunas;
+            }
+            i++;
+        }
+    }
+
+    // Copia para o rascunho, a partir da posição k, o que vier até a próxima vírgula, tratando os escapes.
+    // Devolve a nova posição no rascunho; a posição da vírgula (ou o fim) fica em posicaoSeparador.
+    private int copiarAteSeparador(char[] dados, int i, int fim, int k) {
+        while (i < fim && dados[i] != ',') {
+            if (dados[i] == '\\') {
+                i = escapar(dados, i, fim);
+                if (escapado >= 0) {
+                    rascunho[k++] = (char) escapado;
+                }
+            } else {
+                rascunho[k++] = dados[i++];
+            }
+        }
+        posicaoSeparador = i;
+        return k;
+    }
+
+    // Trata a barra na posição i: guarda em escapado o caractere escapado (ou -1 se a barra for descartada)
+    // e devolve a posição seguinte
+    private int escapar(char[] dados, int i, int fim) {
+        if (i + 1 < fim && (dados[i + 1] == '"' || dados[i + 1] == '\\')) {
+            escapado = dados[i + 1];
+            return i + 2;
+        }
+        escapado = -1;
+        return i + 1;
+    }
+
+    private int tamanho(int coluna) {
+        return fins[coluna] - inicios[coluna];
+    }
+
+    private String texto(int coluna) {
+        return new String(fontes[coluna], inicios[coluna], tamanho(coluna));
+    }
+
+    // Mesmas regras de Integer.parseInt (sinal opcional, só dígitos, sem estouro), sem criar String nem exceção
+    private boolean lerInteiro(int coluna) {
+        char[] fonte = fontes[coluna];
+        int i = inicios[coluna];
+        int fim = fins[coluna];
+        if (i == fim) {
+            return false;
+        }
+
+        boolean negativo = fonte[i] == '-';
+        if (negativo || fonte[i] == '+') {
+            i++;
+            if (i == fim) {
+                return false;
+            }
+        }
+
+        long resultado = 0;
+        for (; i < fim; i++) {
+            int digito = fonte[i] - '0';
+            if (digito < 0 || digito > 9) {
+                return false;
+            }
+            resultado = resultado * 10 + digito;
+            if (resultado > (long) Integer.MAX_VALUE + 1) {
+                return false;
+            }
+        }
+
+        resultado = negativo ? -resultado : resultado;
+        if (resultado > Integer.MAX_VALUE) {
+            return false;
+        }
+        inteiro = (int) resultado;
+        return true;
+    }
+
+    // Equivale a String.valueOf(valor).length()
+    private static int quantidadeCaracteres(int valor) {
+        long absoluto = Math.abs((long) valor);
+        int caracteres = valor < 0 ? 2 : 1;
+        while (absoluto >= 10) {
+            absoluto /= 10;
+            caracteres++;
+        }
+        return caracteres;
+    }
+
+    private BigDecimal lerDecimal(int coluna) {
+        // Sem caracteres o construtor de BigDecimal leria além do campo
+        if (tamanho(coluna) == 0) {
+            return null;
+        }
+        try {
+            return new BigDecimal(fontes[coluna], inicios[coluna], tamanho(coluna));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Coordenadas fora do formato da coluna são ignoradas, não invalidam a linha
+    private BigDecimal lerCoordenada(int coluna) {
+        BigDecimal coordenada = lerDecimal(coluna);
+        if (coordenada == null || coordenada.scale() > 15 || coordenada.precision() - coordenada.scale() > 3) {
+            return null;
+        }
+        return coordenada;
+    }
+
+    private boolean igualIgnorandoCaixa(int coluna, String esperado) {
+        if (tamanho(coluna) != esperado.length()) {
+            return false;
+        }
+        char[] fonte = fontes[coluna];
+        int inicio = inicios[coluna];
+        for (int i = 0; i < esperado.length(); i++) {
+            if (Character.toUpperCase(fonte[inicio + i]) != esperado.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Mesmo critério de String.trim().isEmpty()
+    private boolean estaEmBranco(int coluna) {
+        char[] fonte = fontes[coluna];
+        for (int i = inicios[coluna]; i < fins[coluna]; i++) {
+            if (fonte[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.api.dto.ImportacaoJobDTO;
+import com.example.minhasfinancas.api.dto.ImportacaoResultadoDTO;
+import com.example.minhasfinancas.exception.ImportacaoRecusadaException;
+import com.example.minhasfinancas.service.ImportacaoAssincronaService;
+import com.example.minhasfinancas.service.LancamentoService;
+import com.example.minhasfinancas.service.UsuarioService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Importações de CSV executadas fora da thread da requisição, em um pool limitado com fila limitada:
+// quando a fila enche a importação é recusada na hora, em vez de acumular arquivos e ocupar workers do Tomcat.
+@Slf4j
+@Service
+public class ImportacaoAssincronaServiceImpl implements ImportacaoAssincronaService {
+
+    private final LancamentoService lancamentoService;
+    private final UsuarioService usuarioService;
+    private final ThreadPoolExecutor executor;
+    private final long retencaoMs;
+    private final Map<String, ImportacaoJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportacaoAssincronaServiceImpl(LancamentoService lancamentoService,
+                                           UsuarioService usuarioService,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${importacao.async.threads:2}") int threads,
+                                           @Value("${importacao.async.fila:10}") int tamanhoFila,
+                                           @Value("${importacao.async.retencao-minutos:60}") long retencaoMinutos) {
+        this.lancamentoService = lancamentoService;
+        this.usuarioService = usuarioService;
+        this.retencaoMs = TimeUnit.MINUTES.toMillis(retencaoMinutos);
+
+        AtomicInteger numeroThread = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanhoFila),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "importacao-" + numeroThread.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("importacao.async.fila", executor, e -> e.getQueue().size())
+                .description("Importações aguardando uma thread").register(meterRegistry);
+        Gauge.builder("importacao.async.ativas", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Importações em processamento").register(meterRegistry);
+    }
+
+    @Override
+    public ImportacaoJobDTO iniciar(MultipartFile file, Long usuarioId) throws IOException {
+        lancamentoService.validarArquivoCSV(file);
+        if (!usuarioService.obterPorId(usuarioId).isPresent()) {
+            throw new IllegalArgumentException("Usuário não encontrado");
+        }
+
+        // O arquivo do multipart é apagado ao fim da requisição, então é copiado antes de responder
+        Path arquivo = Files.createTempFile("importacao-", ".csv");
+        try (InputStream entrada = file.getInputStream()) {
+            Files.copy(entrada, arquivo, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            apagar(arquivo);
+            throw e;
+        }
+
+        ImportacaoJob job = new ImportacaoJob(UUID.randomUUID().toString(), usuarioId, Files.size(arquivo));
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> processar(job, arquivo));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            apagar(arquivo);
+            throw new ImportacaoRecusadaException("Muitas importações em andamento. Tente novamente em instantes.");
+        }
+        return job.paraDTO();
+    }
+
+    // Importação de outro usuário é tratada como inexistente, para não revelar ids nem resultados alheios
+    @Override
+    public Optional<ImportacaoJobDTO> obterStatus(String id, Long usuarioId) {
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> job.getUsuarioId().equals(usuarioId))
+                .map(ImportacaoJob::paraDTO);
+    }
+
+    // Resultados ficam disponíveis para consulta por importacao.async.retencao-minutos depois de finalizados
+    @Override
+    public void removerFinalizadas() {
+        long limite = System.currentTimeMillis() - retencaoMs;
+        jobs.values().removeIf(job -> job.finalizadoAntesDe(limite));
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    private void processar(ImportacaoJob job, Path arquivo) {
+        job.iniciar();
+        try (ContadorBytesInputStream entrada = new ContadorBytesInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            ImportacaoResultadoDTO resultado = lancamentoService.importarLancamentosCSVEmLotes(entrada, job.getUsuarioId(),
+                    linhas -> job.atualizarProgresso(linhas, entrada.getBytesLidos()));
+            job.concluir(resultado);
+        } catch (Exception e) {
+            log.warn("Falha na importação assíncrona {} do usuário {}.", job.getId(), job.getUsuarioId(), e);
+            job.falhar("Erro ao importar lançamentos: " + e.getMessage());
+        } finally {
+            apagar(arquivo);
+        }
+    }
+
+    private void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("Não foi possível apagar o arquivo temporário {}.", arquivo, e);
+        }
+    }
+
+    // Conta os bytes lidos do arquivo para estimar o percentual concluído
+    private static class ContadorBytesInputStream extends FilterInputStream {
+
+        private volatile long bytesLidos;
+
+        ContadorBytesInputStream(InputStream entrada) {
+            super(entrada);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int lido = super.read();
+            if (lido >= 0) {
+                bytesLidos++;
+            }
+            return lido;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int lidos = super.read(b, off, len);
+            if (lidos > 0) {
+                bytesLidos += lidos;
+            }
+            return lidos;
+        }
+
+        long getBytesLidos() {
+            return bytesLidos;
+        }
+    }
+}
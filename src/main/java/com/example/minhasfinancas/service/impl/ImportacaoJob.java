@@ -0,0 +1,83 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.api.dto.ImportacaoJobDTO;
+import com.example.minhasfinancas.api.dto.ImportacaoResultadoDTO;
+import com.example.minhasfinancas.model.enums.StatusImportacao;
+
+// Estado de uma importação assíncrona. Escrito só pela thread que processa o arquivo
+// e lido pelas requisições de consulta, por isso os campos são voláteis.
+class ImportacaoJob {
+
+    private final String id;
+    private final Long usuarioId;
+    private final long tamanhoBytes;
+
+    private volatile StatusImportacao status = StatusImportacao.AGUARDANDO;
+    private volatile int linhasProcessadas;
+    private volatile long bytesLidos;
+    private volatile ImportacaoResultadoDTO resultado;
+    private volatile String mensagemErro;
+    private volatile long finalizadoEm;
+
+    ImportacaoJob(String id, Long usuarioId, long tamanhoBytes) {
+        this.id = id;
+        this.usuarioId = usuarioId;
+        this.tamanhoBytes = tamanhoBytes;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    void iniciar() {
+        status = StatusImportacao.PROCESSANDO;
+    }
+
+    void atualizarProgresso(int linhas, long bytes) {
+        linhasProcessadas = linhas;
+        bytesLidos = bytes;
+    }
+
+    void concluir(ImportacaoResultadoDTO resultado) {
+        this.resultado = resultado;
+        this.finalizadoEm = System.currentTimeMillis();
+        this.status = StatusImportacao.CONCLUIDA;
+    }
+
+    void falhar(String mensagemErro) {
+        this.mensagemErro = mensagemErro;
+        this.finalizadoEm = System.currentTimeMillis();
+        this.status = StatusImportacao.FALHOU;
+    }
+
+    boolean finalizadoAntesDe(long instante) {
+        StatusImportacao atual = status;
+        return (atual == StatusImportacao.CONCLUIDA || atual == StatusImportacao.FALHOU) && finalizadoEm < instante;
+    }
+
+    ImportacaoJobDTO paraDTO() {
+        StatusImportacao atual = status;
+        int percentual;
+        if (atual == StatusImportacao.CONCLUIDA) {
+            percentual = 100;
+        } else if (tamanhoBytes > 0) {
+            percentual = (int) Math.min(99, bytesLidos * 100 / tamanhoBytes);
+        } else {
+            percentual = 0;
+        }
+
+        return ImportacaoJobDTO.builder()
+                .id(id)
+                .usuario(usuarioId)
+                .status(atual.name())
+                .linhasProcessadas(linhasProcessadas)
+                .percentual(percentual)
+                .resultado(resultado)
+                .mensagemErro(mensagemErro)
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Hashes da importação sem duplicados: SHA-256 do arquivo inteiro e de cada linha (descricao, mes, ano, valor, tipo e categoria).
+// A n-ésima repetição de uma mesma linha dentro do arquivo recebe um hash próprio: lançamentos iguais no mesmo arquivo
+// continuam sendo importados, e reenviar o arquivo gera exatamente os mesmos hashes. Uma instância por importação.
+class ImpressaoDigitalImportacao {
+
+    private static final char SEPARADOR = '\u001f';
+    private static final int TAMANHO_BUFFER = 8192;
+
+    private final MessageDigest digest = novoDigest();
+    private final Map<String, Integer> ocorrencias = new HashMap<>();
+    private final StringBuilder conteudo = new StringBuilder(128);
+
+    static String hashArquivo(InputStream arquivo) throws IOException {
+        MessageDigest digestArquivo = novoDigest();
+        byte[] buffer = new byte[TAMANHO_BUFFER];
+        int lidos;
+        while ((lidos = arquivo.read(buffer)) != -1) {
+            digestArquivo.update(buffer, 0, lidos);
+        }
+        return codificar(digestArquivo.digest());
+    }
+
+    // O valor é normalizado (10, 10.0 e 10.00 são o mesmo lançamento) e a categoria é comparada como no catálogo
+    String hashLinha(Lancamento lancamento, String descricaoCategoria) {
+        conteudo.setLength(0);
+        conteudo.append(lancamento.getDescricao()).append(SEPARADOR)
+                .append(lancamento.getMes()).append(SEPARADOR)
+                .append(lancamento.getAno()).append(SEPARADOR)
+                .append(lancamento.getValor().stripTrailingZeros().toPlainString()).append(SEPARADOR)
+                .append(lancamento.getTipo()).append(SEPARADOR)
+                .append(descricaoCategoria != null ? descricaoCategoria.trim().toLowerCase(Locale.ROOT) : "");
+
+        String hash = codificar(digest.digest(conteudo.toString().getBytes(StandardCharsets.UTF_8)));
+        int ocorrencia = ocorrencias.merge(hash, 1, Integer::sum);
+        if (ocorrencia == 1) {
+            return hash;
+        }
+        return codificar(digest.digest((hash + SEPARADOR + ocorrencia).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String codificar(byte[] hash) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private static MessageDigest novoDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível.", e);
+        }
+    }
+}
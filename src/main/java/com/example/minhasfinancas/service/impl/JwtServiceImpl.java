@@ -2,18 +2,29 @@ package com.example.minhasfinancas.service.impl;
 
 import com.example.minhasfinancas.model.entity.Usuario;
 import com.example.minhasfinancas.service.JwtService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtServiceImpl implements JwtService {
@@ -24,6 +35,36 @@ public class JwtServiceImpl implements JwtService {
     @Value("${jwt.chave-assinatura}")
     private String chaveAssinatura;
 
+    @Value("${jwt.cache.tamanho-maximo:10000}")
+    private long tamanhoMaximoCache;
+
+    // Claims de tokens já verificados, pela chave do digest do token; cada entrada expira junto com o token
+    private Cache<String, Claims> tokensVerificados;
+
+    @PostConstruct
+    public void iniciarCache() {
+        tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximoCache)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String chave, Claims claims, long tempoAtual) {
+                        long restante = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(restante, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String chave, Claims claims, long tempoAtual, long duracaoAtual) {
+                        return duracaoAtual;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String chave, Claims claims, long tempoAtual, long duracaoAtual) {
+                        return duracaoAtual;
+                    }
+                })
+                .build();
+    }
+
     @Override
     public String gerarToken(Usuario usuario) {
         long exp = Long.valueOf(expiracao);
@@ -54,26 +95,50 @@ public class JwtServiceImpl implements JwtService {
                 .getBody();
     }
 
+    // Faz o parse e a verificação da assinatura uma única vez por token; as requisições seguintes
+    // com o mesmo token usam as claims em cache até a expiração
     @Override
-    public boolean isTokenValido(String token) {
-        try{
-            Claims claims = obterClaims(token);
-            java.util.Date dataEx = claims.getExpiration();
-            LocalDateTime dataExpiracao = dataEx.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
-
-            boolean dataHoraAtualIsAfterDataExpiracao = LocalDateTime.now().isAfter(dataExpiracao);
-            return !dataHoraAtualIsAfterDataExpiracao;
+    public Optional<Claims> obterClaimsValidas(String token) {
+        String chave = digest(token);
+        Claims claims = tokensVerificados.getIfPresent(chave);
+
+        if (claims == null) {
+            try {
+                claims = obterClaims(token);
+            } catch (JwtException | IllegalArgumentException e) {
+                return Optional.empty();
+            }
+            if (claims.getExpiration() == null) {
+                return Optional.empty();
+            }
+            tokensVerificados.put(chave, claims);
+        }
 
-        }catch (ExpiredJwtException e){
-            return false;
+        if (claims.getExpiration().getTime() <= System.currentTimeMillis()) {
+            tokensVerificados.invalidate(chave);
+            return Optional.empty();
         }
+        return Optional.of(claims);
+    }
 
+    @Override
+    public boolean isTokenValido(String token) {
+        return obterClaimsValidas(token).isPresent();
     }
 
     @Override
     public String obterLoginUsuario(String token) {
-        Claims claims = obterClaims(token);
+        Claims claims = obterClaimsValidas(token).orElseGet(() -> obterClaims(token));
 
         return claims.getSubject();
     }
+
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível.", e);
+        }
+    }
 }
@@ -1,40 +1,109 @@
 package com.example.minhasfinancas.service.impl;
 
+import com.example.minhasfinancas.api.dto.AgrupamentoGeograficoDTO;
 import com.example.minhasfinancas.api.dto.ImportacaoResultadoDTO;
+import com.example.minhasfinancas.api.dto.PaginaLancamentosDTO;
+import com.example.minhasfinancas.api.dto.ResumoLancamentoDTO;
 import com.example.minhasfinancas.exception.RegraNegocioException;
-import com.example.minhasfinancas.model.entity.Categoria;
+import com.example.minhasfinancas.model.entity.ImportacaoArquivo;
 import com.example.minhasfinancas.model.entity.Lancamento;
 import com.example.minhasfinancas.model.entity.Usuario;
+import com.example.minhasfinancas.model.enums.FormatoExportacao;
 import com.example.minhasfinancas.model.enums.StatusLancamento;
-import com.example.minhasfinancas.model.enums.TipoLancamento;
+import com.example.minhasfinancas.model.repository.AreaGeografica;
+import com.example.minhasfinancas.model.repository.ContribuicaoResumo;
+import com.example.minhasfinancas.model.repository.ContribuicaoSaldo;
+import com.example.minhasfinancas.model.repository.CursorLancamento;
+import com.example.minhasfinancas.model.repository.Geohash;
+import com.example.minhasfinancas.model.repository.ImportacaoArquivoRepository;
+import com.example.minhasfinancas.model.repository.LancamentoFiltro;
 import com.example.minhasfinancas.model.repository.LancamentoRepository;
+import com.example.minhasfinancas.model.repository.LancamentoSpecifications;
 import com.example.minhasfinancas.service.LancamentoService;
+import com.example.minhasfinancas.service.ResumoLancamentoService;
+import com.example.minhasfinancas.service.SaldoUsuarioService;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.opencsv.CSVWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class LancamentoServiceImpl implements LancamentoService {
 
     private final UsuarioServiceImpl usuarioServiceImpl;
     private final CategoriaServiceImpl categoriaServiceImpl;
+    private final SaldoUsuarioService saldoUsuarioService;
+    private final ResumoLancamentoService resumoLancamentoService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MetricasImportacao metricasImportacao;
+    private final ValidacaoParalelaCSV validacaoParalelaCSV;
+    private final ImportacaoArquivoRepository importacaoArquivoRepository;
     private LancamentoRepository repository;
 
-    public LancamentoServiceImpl(LancamentoRepository repository, UsuarioServiceImpl usuarioServiceImpl, CategoriaServiceImpl categoriaServiceImpl) {
+    // Com open-in-view a transação de cada lote usa o EntityManager da requisição, que dura a importação inteira
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final int LIMITE_MENSAGENS_ERRO = 1000;
+    private static final int TAMANHO_MAXIMO_PAGINA = 500;
+    private static final int TAMANHO_MAXIMO_LOTE = 1000;
+    private static final long MAXIMO_CELULAS_AGRUPAMENTO = 10_000;
+    private static final double RAIO_MAXIMO_METROS = 100_000;
+    private static final int TAMANHO_BUFFER_EXPORTACAO = 8192;
+    private static final String[] CABECALHO_CSV = {"descricao", "mes", "ano", "valor", "tipo", "latitude", "longitude", "categoria"};
+
+    @Value("${importacao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${exportacao.tamanho-fetch:500}")
+    private int tamanhoFetchExportacao;
+
+    public LancamentoServiceImpl(LancamentoRepository repository, UsuarioServiceImpl usuarioServiceImpl, CategoriaServiceImpl categoriaServiceImpl, SaldoUsuarioService saldoUsuarioService, ResumoLancamentoService resumoLancamentoService, PlatformTransactionManager transactionManager, ObjectMapper objectMapper, MetricasImportacao metricasImportacao, ValidacaoParalelaCSV validacaoParalelaCSV, ImportacaoArquivoRepository importacaoArquivoRepository) {
         this.repository = repository;
         this.usuarioServiceImpl = usuarioServiceImpl;
         this.categoriaServiceImpl = categoriaServiceImpl;
+        this.saldoUsuarioService = saldoUsuarioService;
+        this.resumoLancamentoService = resumoLancamentoService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.metricasImportacao = metricasImportacao;
+        this.validacaoParalelaCSV = validacaoParalelaCSV;
+        this.importacaoArquivoRepository = importacaoArquivoRepository;
     }
 
     @Override
@@ -42,7 +111,10 @@ public class LancamentoServiceImpl implements LancamentoService {
     public Lancamento salvar(Lancamento lancamento) {
         validar(lancamento);
         lancamento.setStatus(StatusLancamento.PENDENTE);
-        return repository.save(lancamento);
+        Lancamento salvo = repository.save(lancamento);
+        saldoUsuarioService.atualizarSaldo(null, ContribuicaoSaldo.de(salvo));
+        resumoLancamentoService.atualizarResumo(null, ContribuicaoResumo.de(salvo));
+        return salvo;
     }
 
     @Override
@@ -50,30 +122,377 @@ public class LancamentoServiceImpl implements LancamentoService {
     public Lancamento atualizar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
         validar(lancamento);
-        return repository.save(lancamento);
+        ContribuicaoResumo anterior = repository.obterContribuicaoResumo(lancamento.getId()).orElse(null);
+        Lancamento atualizado = repository.save(lancamento);
+        saldoUsuarioService.atualizarSaldo(anterior != null ? anterior.paraSaldo() : null, ContribuicaoSaldo.de(atualizado));
+        resumoLancamentoService.atualizarResumo(anterior, ContribuicaoResumo.de(atualizado));
+        return atualizado;
     }
 
     @Override
     @Transactional
     public void deletar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
+        ContribuicaoResumo anterior = repository.obterContribuicaoResumo(lancamento.getId()).orElse(null);
         repository.delete(lancamento);
+        saldoUsuarioService.atualizarSaldo(anterior != null ? anterior.paraSaldo() : null, null);
+        resumoLancamentoService.atualizarResumo(anterior, null);
+    }
+
+    // Todos os lançamentos são validados antes de gravar; os INSERTs vão em lotes do JDBC (hibernate.jdbc.batch_size).
+    // Entram como PENDENTE e por isso não alteram saldo_usuario, só o resumo, com uma atualização por célula.
+    @Override
+    @Transactional
+    public List<Lancamento> salvarEmLote(List<Lancamento> lancamentos) {
+        validarTamanhoLote(lancamentos);
+        for (int i = 0; i < lancamentos.size(); i++) {
+            try {
+                validar(lancamentos.get(i));
+            } catch (RegraNegocioException e) {
+                throw new RegraNegocioException("Lançamento " + (i + 1) + ": " + e.getMessage());
+            }
+            lancamentos.get(i).setStatus(StatusLancamento.PENDENTE);
+        }
+
+        List<Lancamento> salvos = repository.saveAll(lancamentos);
+        resumoLancamentoService.adicionarAoResumo(salvos);
+        return salvos;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Lancamento> buscarPorIds(Long idUsuario, List<Long> ids) {
+        validarTamanhoLote(ids);
+        return repository.findAll(doUsuario(idUsuario).and(LancamentoSpecifications.porIds(ids)), Sort.by("ano", "mes", "id"));
+    }
+
+    // Só lançamentos pendentes do usuário mudam de status, e só são efetivados os de meses que já começaram.
+    // Devolve quantos mudaram; os demais ids (de outro usuário, inexistentes ou fora da regra) são ignorados.
+    @Override
+    @Transactional
+    public int atualizarStatusEmLote(Long idUsuario, List<Long> ids, StatusLancamento status) {
+        if (status != StatusLancamento.EFETIVADO && status != StatusLancamento.CANCELADO) {
+            throw new RegraNegocioException("Não foi possível atualizar o status dos lançamentos, envie um status válido.");
+        }
+        validarTamanhoLote(ids);
+
+        Specification<Lancamento> especificacao = doUsuario(idUsuario)
+                .and(LancamentoSpecifications.porIds(ids))
+                .and(LancamentoSpecifications.pendentes());
+        if (status == StatusLancamento.EFETIVADO) {
+            LocalDate hoje = LocalDate.now();
+            especificacao = especificacao.and(LancamentoSpecifications.ateOMes(hoje.getYear(), hoje.getMonthValue()));
+        }
+        return alterarEmLote(idUsuario, especificacao, status);
+    }
+
+    @Override
+    @Transactional
+    public int deletarEmLote(Long idUsuario, List<Long> ids) {
+        validarTamanhoLote(ids);
+        return alterarEmLote(idUsuario, doUsuario(idUsuario).and(LancamentoSpecifications.porIds(ids)), null);
+    }
+
+    // Exige algum critério além do usuário, para um filtro vazio não apagar todos os lançamentos dele
+    @Override
+    @Transactional
+    public int deletarPorFiltro(LancamentoFiltro filtro) {
+        if (filtro.getIdUsuario() == null) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+        boolean descricao = filtro.getDescricao() != null && !filtro.getDescricao().isEmpty();
+        if (!descricao && filtro.getMes() == null && filtro.getAno() == null && filtro.getCategoriaId() == null && filtro.getTipo() == null) {
+            throw new RegraNegocioException("Informe ao menos um filtro além do usuário.");
+        }
+        return alterarEmLote(filtro.getIdUsuario(), LancamentoSpecifications.filtro(filtro), null);
+    }
+
+    // Muda o status (ou apaga, com status nulo) de todos os lançamentos da especificação com uma única instrução.
+    // A contribuição deles ao saldo e ao resumo é lida antes, agrupada por célula e com a mesma especificação; se a
+    // instrução atingir outra quantidade de linhas, outra operação alterou os lançamentos no meio e tudo é desfeito.
+    private int alterarEmLote(Long idUsuario, Specification<Lancamento> especificacao, StatusLancamento status) {
+        // Com os lançamentos bloqueados, as contribuições lidas são exatamente as que o UPDATE/DELETE vai alterar
+        if (repository.bloquear(especificacao) == 0) {
+            return 0;
+        }
+        List<ContribuicaoResumo> anteriores = repository.agruparContribuicoes(especificacao);
+        long esperados = anteriores.stream().mapToLong(ContribuicaoResumo::getQuantidade).sum();
+        if (esperados == 0) {
+            return 0;
+        }
+
+        int afetados = status != null ? repository.atualizarStatus(especificacao, status) : repository.deletar(especificacao);
+        if (afetados != esperados) {
+            throw new RegraNegocioException("Os lançamentos foram alterados por outra operação. Tente novamente.");
+        }
+
+        List<ContribuicaoResumo> atuais = status != null
+                ? anteriores.stream().map(anterior -> anterior.comStatus(status)).collect(Collectors.toList())
+                : Collections.emptyList();
+        saldoUsuarioService.atualizarSaldo(somarSaldo(idUsuario, anteriores), somarSaldo(idUsuario, atuais));
+        resumoLancamentoService.atualizarResumo(anteriores, atuais);
+        return afetados;
+    }
+
+    private ContribuicaoSaldo somarSaldo(Long idUsuario, List<ContribuicaoResumo> contribuicoes) {
+        BigDecimal valor = BigDecimal.ZERO;
+        for (ContribuicaoResumo contribuicao : contribuicoes) {
+            valor = valor.add(contribuicao.paraSaldo().getValor());
+        }
+        return new ContribuicaoSaldo(idUsuario, valor);
+    }
+
+    private Specification<Lancamento> doUsuario(Long idUsuario) {
+        if (idUsuario == null) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+        return LancamentoSpecifications.filtro(LancamentoFiltro.builder().idUsuario(idUsuario).build());
+    }
+
+    private void validarTamanhoLote(List<?> itens) {
+        if (itens == null || itens.isEmpty() || itens.size() > TAMANHO_MAXIMO_LOTE) {
+            throw new IllegalArgumentException("O lote deve ter entre 1 e " + TAMANHO_MAXIMO_LOTE + " itens.");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Lancamento> buscar(LancamentoFiltro filtro) {
+        // O usuário é sempre a primeira condição, para a consulta usar os índices iniciados por id_usuario
+        if (filtro.getIdUsuario() == null) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+        return repository.findAll(LancamentoSpecifications.filtro(filtro), Sort.by("ano", "mes", "id"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaLancamentosDTO buscarPagina(LancamentoFiltro filtro, String cursor, int tamanho, boolean decrescente) {
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("O tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+        }
+
+        CursorLancamento posicao = cursor != null && !cursor.isEmpty() ? CursorLancamento.decodificar(cursor) : null;
+
+        // Busca um item a mais só para saber se existe próxima página
+        List<Lancamento> lancamentos = repository.buscarPorCursor(LancamentoSpecifications.filtro(filtro), posicao, decrescente, tamanho + 1);
+
+        String proximo = null;
+        if (lancamentos.size() > tamanho) {
+            lancamentos = new ArrayList<>(lancamentos.subList(0, tamanho));
+            proximo = CursorLancamento.de(lancamentos.get(tamanho - 1)).codificar();
+        }
+
+        return new PaginaLancamentosDTO(lancamentos, proximo);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Lancamento> buscarPorDescricao(Long idUsuario, String termo, boolean ranqueado, int limite) {
+        if (termo == null || termo.trim().isEmpty()) {
+            throw new IllegalArgumentException("Informe um termo para a busca.");
+        }
+        validarLimite(limite);
+
+        if (ranqueado) {
+            return repository.buscarPorTextoRanqueado(idUsuario, termo.trim(), limite);
+        }
+
+        LancamentoFiltro filtro = LancamentoFiltro.builder().idUsuario(idUsuario).descricao(termo.trim()).build();
+        return repository.buscarPorCursor(LancamentoSpecifications.filtro(filtro), null, true, limite);
     }
 
+    // Viewport do mapa: lançamentos do usuário com coordenadas dentro da área, mais recentes primeiro
     @Override
     @Transactional(readOnly = true)
-    public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
-        Example example = Example.of(lancamentoFiltro,
-                ExampleMatcher.matching()
-                        .withIgnoreCase()
-                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
-        return repository.findAll(example);
+    public List<Lancamento> buscarNaArea(Long idUsuario, AreaGeografica area, int limite) {
+        validarArea(area);
+        validarLimite(limite);
+
+        LancamentoFiltro filtro = LancamentoFiltro.builder().idUsuario(idUsuario).build();
+        return repository.buscarPorCursor(LancamentoSpecifications.filtro(filtro).and(LancamentoSpecifications.naArea(area)), null, true, limite);
+    }
+
+    // Lançamentos do usuário a até raioMetros do ponto, do mais próximo ao mais distante. O banco filtra pelo retângulo
+    // que contém o círculo e ordena pela distância aproximada; a distância exata descarta os cantos do retângulo.
+    @Override
+    @Transactional(readOnly = true)
+    public List<Lancamento> buscarProximos(Long idUsuario, double latitude, double longitude, double raioMetros, int limite) {
+        validarCoordenadas(latitude, longitude);
+        if (raioMetros <= 0 || raioMetros > RAIO_MAXIMO_METROS) {
+            throw new IllegalArgumentException("O raio deve ser maior que 0 e de no máximo " + (int) RAIO_MAXIMO_METROS + " metros.");
+        }
+        validarLimite(limite);
+
+        LancamentoFiltro filtro = LancamentoFiltro.builder().idUsuario(idUsuario).build();
+        AreaGeografica area = AreaGeografica.aoRedor(latitude, longitude, raioMetros);
+        List<Lancamento> candidatos = repository.buscarPorProximidade(
+                LancamentoSpecifications.filtro(filtro).and(LancamentoSpecifications.naArea(area)), latitude, longitude, limite);
+
+        return candidatos.stream()
+                .filter(lancamento -> AreaGeografica.distanciaMetros(latitude, longitude,
+                        lancamento.getLatitude().doubleValue(), lancamento.getLongitude().doubleValue()) <= raioMetros)
+                .collect(Collectors.toList());
+    }
+
+    // Pontos do mapa agrupados por célula de geohash no nível de zoom, opcionalmente só dentro da área visível.
+    // O agrupamento é feito no banco pelo prefixo do geohash gravado: a resposta tem uma linha por célula, não por lançamento.
+    @Override
+    @Transactional(readOnly = true)
+    public List<AgrupamentoGeograficoDTO> agruparNoMapa(Long idUsuario, int zoom, AreaGeografica area) {
+        if (zoom < 0 || zoom > Geohash.ZOOM_MAXIMO) {
+            throw new IllegalArgumentException("O zoom deve estar entre 0 e " + Geohash.ZOOM_MAXIMO + ".");
+        }
+
+        int precisao = Geohash.precisaoParaZoom(zoom);
+        LancamentoFiltro filtro = LancamentoFiltro.builder().idUsuario(idUsuario).build();
+        Specification<Lancamento> especificacao = LancamentoSpecifications.filtro(filtro);
+        if (area != null) {
+            validarArea(area);
+            if (contarCelulas(area, precisao) > MAXIMO_CELULAS_AGRUPAMENTO) {
+                throw new IllegalArgumentException("A área é grande demais para o zoom. Reduza a área ou o zoom.");
+            }
+            especificacao = especificacao.and(LancamentoSpecifications.naArea(area));
+        } else if (contarCelulas(AreaGeografica.MUNDO, precisao) > MAXIMO_CELULAS_AGRUPAMENTO) {
+            // Sem área o agrupamento cobre o globo: a partir de certo zoom seriam dezenas de milhares de células
+            throw new IllegalArgumentException("Informe a área visível para agrupar neste zoom.");
+        }
+        return repository.agruparPorCelula(especificacao, precisao);
+    }
+
+    // Limite de linhas do agrupamento: cada célula da área vira no máximo uma linha
+    private long contarCelulas(AreaGeografica area, int precisao) {
+        long celulas = 0;
+        for (AreaGeografica retangulo : area.semCruzarAntimeridiano()) {
+            celulas += Geohash.contarCelulas(retangulo.getLatitudeMinima(), retangulo.getLongitudeMinima(),
+                    retangulo.getLatitudeMaxima(), retangulo.getLongitudeMaxima(), precisao);
+        }
+        return celulas;
+    }
+
+    private void validarArea(AreaGeografica area) {
+        validarCoordenadas(area.getLatitudeMinima(), area.getLongitudeMinima());
+        validarCoordenadas(area.getLatitudeMaxima(), area.getLongitudeMaxima());
+        if (area.getLatitudeMinima() > area.getLatitudeMaxima()) {
+            throw new IllegalArgumentException("A latitude mínima deve ser menor ou igual à latitude máxima.");
+        }
+    }
+
+    private void validarCoordenadas(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90) {
+            throw new IllegalArgumentException("A latitude deve estar entre -90 e 90.");
+        }
+        if (longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("A longitude deve estar entre -180 e 180.");
+        }
+    }
+
+    private void validarLimite(int limite) {
+        if (limite < 1 || limite > TAMANHO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+        }
     }
 
     @Override
-    public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
-        lancamento.setStatus(status);
-        atualizar(lancamento);
+    @Transactional(readOnly = true)
+    public boolean existeLancamento(LancamentoFiltro filtro) {
+        return !repository.buscarPorCursor(LancamentoSpecifications.filtro(filtro), null, false, 1).isEmpty();
+    }
+
+    // Escreve o arquivo à medida que as linhas chegam do cursor, sem montar a lista nem o arquivo em memória
+    @Override
+    @Transactional(readOnly = true)
+    public void exportar(LancamentoFiltro filtro, FormatoExportacao formato, OutputStream saida) throws IOException {
+        if (filtro.getIdUsuario() == null) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+
+        GZIPOutputStream compactador = formato.isCompactado() ? new GZIPOutputStream(saida, TAMANHO_BUFFER_EXPORTACAO) : null;
+        OutputStream destino = compactador != null ? compactador : saida;
+
+        try (Stream<Lancamento> lancamentos = repository.streamPorFiltro(LancamentoSpecifications.filtro(filtro), tamanhoFetchExportacao)) {
+            if (formato.isCsv()) {
+                escreverCsv(lancamentos, destino);
+            } else {
+                escreverJson(lancamentos, destino);
+            }
+        }
+
+        // Finaliza o gzip sem fechar a saída, que pertence ao container
+        if (compactador != null) {
+            compactador.finish();
+        }
+    }
+
+    private void escreverJson(Stream<Lancamento> lancamentos, OutputStream destino) throws IOException {
+        // Sem flush a cada lançamento: o buffer do gerador e o do container decidem quando enviar
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator gerador = objectMapper.getFactory().createGenerator(destino)) {
+            gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gerador.writeStartArray();
+            Iterator<Lancamento> iterator = lancamentos.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(gerador, iterator.next());
+            }
+            gerador.writeEndArray();
+        }
+    }
+
+    // Mesmas colunas aceitas pela importação, então o arquivo exportado pode ser importado de volta
+    private void escreverCsv(Stream<Lancamento> lancamentos, OutputStream destino) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), TAMANHO_BUFFER_EXPORTACAO);
+        CSVWriter csvWriter = new CSVWriter(writer);
+        csvWriter.writeNext(CABECALHO_CSV, false);
+
+        Iterator<Lancamento> iterator = lancamentos.iterator();
+        while (iterator.hasNext()) {
+            Lancamento lancamento = iterator.next();
+            csvWriter.writeNext(new String[]{
+                    lancamento.getDescricao(),
+                    texto(lancamento.getMes()),
+                    texto(lancamento.getAno()),
+                    lancamento.getValor() != null ? lancamento.getValor().toPlainString() : "",
+                    texto(lancamento.getTipo()),
+                    lancamento.getLatitude() != null ? lancamento.getLatitude().toPlainString() : "",
+                    lancamento.getLongitude() != null ? lancamento.getLongitude().toPlainString() : "",
+                    lancamento.getCategoria() != null ? lancamento.getCategoria().getDescricao() : ""
+            }, false);
+        }
+        csvWriter.flush();
+    }
+
+    private String texto(Object valor) {
+        return valor != null ? valor.toString() : "";
+    }
+
+    // Efetiva ou cancela um lançamento pendente com um único UPDATE condicional (id, status PENDENTE e, na efetivação,
+    // mês que já começou), sem ler o lançamento antes; devolve false se nenhuma linha atendeu às condições.
+    // A contribuição ao saldo e ao resumo é lida depois do UPDATE, com a linha já bloqueada por ele até o commit,
+    // então corresponde exatamente ao que foi alterado.
+    @Override
+    @Transactional
+    public boolean transicionarStatus(Long id, StatusLancamento status) {
+        if (status != StatusLancamento.EFETIVADO && status != StatusLancamento.CANCELADO) {
+            throw new RegraNegocioException("Não foi possível atualizar o status do lançamento, envie um status válido.");
+        }
+
+        Specification<Lancamento> especificacao = LancamentoSpecifications.porIds(Collections.singletonList(id))
+                .and(LancamentoSpecifications.pendentes());
+        if (status == StatusLancamento.EFETIVADO) {
+            LocalDate hoje = LocalDate.now();
+            especificacao = especificacao.and(LancamentoSpecifications.ateOMes(hoje.getYear(), hoje.getMonthValue()));
+        }
+        if (repository.atualizarStatus(especificacao, status) == 0) {
+            return false;
+        }
+
+        ContribuicaoResumo atual = repository.obterContribuicaoResumo(id)
+                .orElseThrow(() -> new IllegalStateException("Lançamento " + id + " não encontrado após a atualização do status."));
+        ContribuicaoResumo anterior = atual.comStatus(StatusLancamento.PENDENTE);
+        saldoUsuarioService.atualizarSaldo(anterior.paraSaldo(), atual.paraSaldo());
+        resumoLancamentoService.atualizarResumo(anterior, atual);
+        return true;
     }
 
     @Override
@@ -107,153 +526,74 @@ public class LancamentoServiceImpl implements LancamentoService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal obterSaldoPorUsuario(Long id) {
-        BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
-        BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
-
-        if (receitas == null) {
-            receitas = BigDecimal.ZERO;
+        Optional<BigDecimal> saldoMaterializado = saldoUsuarioService.obterSaldo(id);
+        if (saldoMaterializado.isPresent()) {
+            return saldoMaterializado.get();
         }
-        if (despesas == null) {
-            despesas = BigDecimal.ZERO;
+
+        // Usuário ainda sem linha em saldo_usuario (nenhum lançamento efetivado desde a criação da tabela)
+        BigDecimal saldo = repository.obterSaldoPorUsuarioEStatus(id, StatusLancamento.EFETIVADO);
+
+        if (saldo == null) {
+            return BigDecimal.ZERO;
         }
 
-        return receitas.subtract(despesas);
+        return saldo;
+    }
+
+    @Override
+    public List<ResumoLancamentoDTO> obterResumo(Long idUsuario, int anoInicio, int mesInicio, int anoFim, int mesFim) {
+        return resumoLancamentoService.obterResumo(idUsuario, anoInicio, mesInicio, anoFim, mesFim);
     }
 
     @Override
     @Transactional
-    public ImportacaoResultadoDTO importarLancamentosCSV(MultipartFile file, Long usuarioId) throws IOException, CsvValidationException {
+    public ImportacaoResultadoDTO importarLancamentosCSV(MultipartFile file, Long usuarioId) throws IOException {
         List<Lancamento> lancamentos = new ArrayList<>();
         List<String> mensagensErros = new ArrayList<>();
         int lancamentosImportados = 0;
         int erros = 0;
 
-        if (file.isEmpty()) {
-            throw new IllegalArgumentException("Arquivo CSV está vazio!");
-        }
-
-        String filename = file.getOriginalFilename();
-        if (filename == null || !filename.endsWith(".csv")) {
-            throw new IllegalArgumentException("O arquivo deve ter a extensão .csv!");
-        }
-
-        try (CSVReader csvReader = new CSVReader(new InputStreamReader(file.getInputStream()))) {
-            String[] values;
-            int linhaAtual = 0;
-            csvReader.readNext();
-
-            while ((values = csvReader.readNext()) != null) {
-                linhaAtual++;
-                List<String> errosLinha = new ArrayList<>();
-                boolean erroLeve = false;
-
-                if (values.length != 8) {
-                    mensagensErros.add("- Erro na linha " + linhaAtual + ": número incorreto de colunas (exigido: 8, encontrado: " + values.length + ").");
-                    erros++;
-                    continue;
-                }
-
-                String descricao = values[0];
-                if (descricao == null || descricao.isEmpty() || descricao.length() > 100) {
-                    errosLinha.add("Coluna de descrição: Descrição inválida (vazia ou com mais de 100 caracteres).");
-                }
-
-                try {
-                    int mes = Integer.parseInt(values[1]);
-                    if (mes < 1 || mes > 12) {
-                        errosLinha.add("Coluna de mês: Mês inválido (valor: " + mes + ").");
-                    }
-                } catch (NumberFormatException e) {
-                    errosLinha.add("Coluna de mês: Formato inválido.");
-                }
-
-                try {
-                    int ano = Integer.parseInt(values[2]);
-                    if (String.valueOf(ano).length() != 4) {
-                        errosLinha.add("Coluna de ano: Ano inválido (deve ter 4 dígitos, valor: " + ano + ").");
-                    }
-                } catch (NumberFormatException e) {
-                    errosLinha.add("Coluna de ano: Formato inválido.");
-                }
-
-                try {
-                    BigDecimal valor = new BigDecimal(values[3]);
-                    if (valor.compareTo(BigDecimal.ZERO) < 0) {
-                        errosLinha.add("Coluna de valor: Valor não pode ser negativo (valor: " + valor + ").");
-                    }
-                } catch (NumberFormatException e) {
-                    errosLinha.add("Coluna de valor: Formato inválido.");
-                }
+        validarArquivoCSV(file);
+        ResolvedorImportacao resolvedor = new ResolvedorImportacao(usuarioServiceImpl, categoriaServiceImpl, usuarioId);
+        MetricasImportacao.Etapas etapas = metricasImportacao.iniciar("unico");
 
-                String tipo = values[4].toUpperCase();
-                if (!tipo.equals("RECEITA") && !tipo.equals("DESPESA")) {
-                    errosLinha.add("Coluna de tipo: Tipo de lançamento inválido (deve ser 'RECEITA' ou 'DESPESA', valor: " + tipo + ").");
-                }
+        try (Reader reader = new InputStreamReader(file.getInputStream());
+             LeitorLinhasCSV leitor = abrirLeitor(reader, etapas)) {
+            LinhaImportacaoCSV linha;
 
-                BigDecimal latitude = null;
-                try {
-                    latitude = new BigDecimal(values[5]);
-                    if (latitude.scale() > 15 || latitude.precision() - latitude.scale() > 3) {
-                        latitude = null;
-                    }
-                } catch (NumberFormatException e) {
-                    latitude = null;
-                }
-
-                BigDecimal longitude = null;
-                try {
-                    longitude = new BigDecimal(values[6]);
-                    if (longitude.scale() > 15 || longitude.precision() - longitude.scale() > 3) {
-                        longitude = null;
-                    }
-                } catch (NumberFormatException e) {
-                    longitude = null;
-                }
-
-                String categoriaStr = values[7];
-                Categoria categoria = null;
-                if (categoriaStr != null && !categoriaStr.trim().isEmpty()) {
-                    Optional<Categoria> categoriaOptional = categoriaServiceImpl.obterPorDescricao(categoriaStr.trim());
-                    if (categoriaOptional.isPresent()) {
-                        categoria = categoriaOptional.get();
-                    }
-                }
-
-                if (!errosLinha.isEmpty()) {
-                    mensagensErros.add("- Erro(s) na linha " + linhaAtual + ":\n " + String.join("\n ", errosLinha));
+            while ((linha = leitor.proxima()) != null) {
+                if (!linha.isValida()) {
+                    mensagensErros.add(linha.getMensagemErro());
                     erros++;
                     continue;
                 }
 
                 try {
-                    Lancamento lancamento = new Lancamento();
-                    lancamento.setDescricao(descricao);
-                    lancamento.setMes(Integer.parseInt(values[1]));
-                    lancamento.setAno(Integer.parseInt(values[2]));
-                    lancamento.setValor(new BigDecimal(values[3]));
-                    lancamento.setLatitude(latitude);
-                    lancamento.setLongitude(longitude);
-                    lancamento.setTipo(TipoLancamento.valueOf(tipo));
-                    lancamento.setCategoria(categoria);
-                    lancamento.setStatus(StatusLancamento.PENDENTE);
-
-                    Usuario usuario = usuarioServiceImpl.obterPorId(usuarioId)
+                    Lancamento lancamento = linha.getLancamento();
+                    Usuario usuario = resolvedor.obterUsuario()
                             .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
                     lancamento.setUsuario(usuario);
+                    resolverCategoria(linha, resolvedor);
 
                     lancamentos.add(lancamento);
                     lancamentosImportados++;
                 } catch (Exception e) {
-                    mensagensErros.add("Erro ao processar linha " + linhaAtual + ": " + Arrays.toString(values) + " - " + e.getMessage());
+                    mensagensErros.add("Erro ao processar linha " + linha.getLinha() + " - " + e.getMessage());
                     erros++;
                 }
             }
         }
 
+        // Lançamentos importados entram como PENDENTE e por isso não alteram saldo_usuario, só o resumo
+        long inicioPersistencia = System.nanoTime();
         if (!lancamentos.isEmpty()) {
             repository.saveAll(lancamentos);
+            resumoLancamentoService.adicionarAoResumo(lancamentos);
         }
+        etapas.adicionarPersistencia(System.nanoTime() - inicioPersistencia);
 
+        long inicioSerializacao = System.nanoTime();
         List<String> lancamentosJson = new ArrayList<>();
         ObjectMapper objectMapper = new ObjectMapper();
         for (Lancamento lancamento : lancamentos) {
@@ -263,9 +603,180 @@ public class LancamentoServiceImpl implements LancamentoService {
                 mensagensErros.add("Erro ao converter lançamento para JSON: " + e.getMessage());
             }
         }
+        etapas.adicionarSerializacao(System.nanoTime() - inicioSerializacao);
 
+        metricasImportacao.registrar(etapas, resolvedor.getNanosResolucao(), lancamentosImportados, erros, 0);
         return new ImportacaoResultadoDTO(lancamentosImportados, erros, mensagensErros, lancamentosJson);
     }
 
+    @Override
+    public ImportacaoResultadoDTO importarLancamentosCSVEmLotes(MultipartFile file, Long usuarioId) throws IOException {
+        validarArquivoCSV(file);
+        try (InputStream conteudo = file.getInputStream()) {
+            return importarLancamentosCSVEmLotes(conteudo, usuarioId, linhas -> { });
+        }
+    }
+
+    // O progresso recebe o número de linhas já processadas (válidas ou não)
+    @Override
+    public ImportacaoResultadoDTO importarLancamentosCSVEmLotes(InputStream conteudo, Long usuarioId, IntConsumer progresso) throws IOException {
+        return importarEmLotes(conteudo, usuarioId, progresso, false);
+    }
+
+    // Importação em lotes que pode ser repetida com o mesmo arquivo: cada linha leva o hash do seu conteúdo e linhas já
+    // gravadas são ignoradas pelo índice único. Um arquivo importado sem erros fica registrado e é reconhecido pelo hash.
+    @Override
+    public ImportacaoResultadoDTO importarLancamentosCSVSemDuplicados(MultipartFile file, Long usuarioId) throws IOException {
+        validarArquivoCSV(file);
+
+        String hashArquivo;
+        try (InputStream conteudo = file.getInputStream()) {
+            hashArquivo = ImpressaoDigitalImportacao.hashArquivo(conteudo);
+        }
+
+        Optional<ImportacaoArquivo> importado = importacaoArquivoRepository.findByIdUsuarioAndHashArquivo(usuarioId, hashArquivo);
+        if (importado.isPresent()) {
+            // Mesmo arquivo já importado por completo: responde sem ler as linhas
+            return new ImportacaoResultadoDTO(0, 0, new ArrayList<>(), null, importado.get().getLancamentos());
+        }
+
+        ImportacaoResultadoDTO resultado;
+        try (InputStream conteudo = file.getInputStream()) {
+            resultado = importarEmLotes(conteudo, usuarioId, linhas -> { }, true);
+        }
+
+        // Com erros o arquivo continua sendo processado nos reenvios, para devolver as mesmas mensagens
+        if (resultado.getErros() == 0) {
+            registrarArquivo(usuarioId, hashArquivo, resultado.getLancamentosImportados() + resultado.getDuplicados());
+        }
+        return resultado;
+    }
+
+    private void registrarArquivo(Long usuarioId, String hashArquivo, int lancamentos) {
+        ImportacaoArquivo arquivo = ImportacaoArquivo.builder()
+                .idUsuario(usuarioId)
+                .hashArquivo(hashArquivo)
+                .dataImportacao(LocalDateTime.now())
+                .lancamentos(lancamentos)
+                .build();
+        try {
+            transactionTemplate.execute(status -> importacaoArquivoRepository.save(arquivo));
+        } catch (DataIntegrityViolationException e) {
+            // Um envio simultâneo do mesmo arquivo terminou antes e já o registrou
+        }
+    }
+
+    private ImportacaoResultadoDTO importarEmLotes(InputStream conteudo, Long usuarioId, IntConsumer progresso, boolean deduplicar) throws IOException {
+        ResolvedorImportacao resolvedor = new ResolvedorImportacao(usuarioServiceImpl, categoriaServiceImpl, usuarioId);
+
+        Usuario usuario = resolvedor.obterUsuario()
+                .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
+        MetricasImportacao.Etapas etapas = metricasImportacao.iniciar(deduplicar ? "idempotente" : "lotes");
+        ImpressaoDigitalImportacao impressaoDigital = deduplicar ? new ImpressaoDigitalImportacao() : null;
+
+        List<Lancamento> lote = new ArrayList<>(tamanhoLote);
+        List<String> mensagensErros = new ArrayList<>();
+        int linhasValidas = 0;
+        int lancamentosImportados = 0;
+        int erros = 0;
+
+        try (Reader reader = new InputStreamReader(conteudo);
+             LeitorLinhasCSV leitor = abrirLeitor(reader, etapas)) {
+            LinhaImportacaoCSV linha;
+
+            while ((linha = leitor.proxima()) != null) {
+                progresso.accept(linha.getLinha());
+
+                if (!linha.isValida()) {
+                    // Só as primeiras mensagens são devolvidas, para o resumo não crescer com o arquivo
+                    if (mensagensErros.size() < LIMITE_MENSAGENS_ERRO) {
+                        mensagensErros.add(linha.getMensagemErro());
+                    }
+                    erros++;
+                    continue;
+                }
+
+                Lancamento lancamento = linha.getLancamento();
+                lancamento.setUsuario(usuario);
+                resolverCategoria(linha, resolvedor);
+                if (impressaoDigital != null) {
+                    lancamento.setHashImportacao(impressaoDigital.hashLinha(lancamento, linha.getDescricaoCategoria()));
+                }
+                lote.add(lancamento);
+                linhasValidas++;
+
+                if (lote.size() >= tamanhoLote) {
+                    lancamentosImportados += salvarLote(lote, etapas, deduplicar);
+                }
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            lancamentosImportados += salvarLote(lote, etapas, deduplicar);
+        }
+
+        int duplicados = linhasValidas - lancamentosImportados;
+        metricasImportacao.registrar(etapas, resolvedor.getNanosResolucao(), lancamentosImportados, erros, duplicados);
+        return new ImportacaoResultadoDTO(lancamentosImportados, erros, mensagensErros, null, duplicados);
+    }
+
+    // Cada lote é gravado e commitado em sua própria transação, junto com o resumo, e depois descartado da memória
+    // e do contexto de persistência. Devolve quantos lançamentos foram gravados; na deduplicação, os já existentes não contam.
+    private int salvarLote(List<Lancamento> lote, MetricasImportacao.Etapas etapas, boolean deduplicar) {
+        long inicio = System.nanoTime();
+        int gravados = transactionTemplate.execute(status -> {
+            int inseridos;
+            if (!deduplicar) {
+                repository.saveAll(lote);
+                resumoLancamentoService.adicionarAoResumo(lote);
+                inseridos = lote.size();
+            } else {
+                inseridos = repository.inserirIgnorandoDuplicados(lote);
+                // Os ignorados voltam sem id
+                List<Lancamento> novos = new ArrayList<>(inseridos);
+                for (Lancamento lancamento : lote) {
+                    if (lancamento.getId() != null) {
+                        novos.add(lancamento);
+                    }
+                }
+                resumoLancamentoService.adicionarAoResumo(novos);
+            }
+            // Sem isso os lançamentos de todos os lotes continuariam gerenciados (e verificados no flush) até o fim da requisição
+            entityManager.flush();
+            entityManager.clear();
+            return inseridos;
+        });
+        etapas.adicionarPersistencia(System.nanoTime() - inicio);
+        lote.clear();
+        return gravados;
+    }
+
+    // Pula o cabeçalho; a conversão das linhas pode rodar no pool de validação, mas as linhas chegam na ordem do arquivo
+    private LeitorLinhasCSV abrirLeitor(Reader reader, MetricasImportacao.Etapas etapas) throws IOException {
+        LeitorRegistrosCSV leitorRegistros = new LeitorRegistrosCSV(reader);
+        leitorRegistros.pularRegistro();
+        return validacaoParalelaCSV.abrir(leitorRegistros, etapas);
+    }
+
+    // Feita na thread da importação, depois da validação, para as consultas usarem a transação dela
+    private void resolverCategoria(LinhaImportacaoCSV linha, ResolvedorImportacao resolvedor) {
+        String descricao = linha.getDescricaoCategoria();
+        if (descricao != null && !descricao.trim().isEmpty()) {
+            resolvedor.obterCategoria(descricao).ifPresent(linha.getLancamento()::setCategoria);
+        }
+    }
+
+    @Override
+    public void validarArquivoCSV(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Arquivo CSV está vazio!");
+        }
+
+        String filename = file.getOriginalFilename();
+        if (filename == null || !filename.endsWith(".csv")) {
+            throw new IllegalArgumentException("O arquivo deve ter a extensão .csv!");
+        }
+    }
+
 
 }
@@ -0,0 +1,148 @@
+package com.example.minhasfinancas.service.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Entrega as linhas convertidas de um CSV na ordem do arquivo. Sem pool, lê e converte uma linha por vez
+// reaproveitando o mesmo bloco e o mesmo conversor; com pool, lê blocos de registros, converte os blocos em paralelo
+// e mantém no máximo "blocosPendentes" em andamento.
+class LeitorLinhasCSV implements Closeable {
+
+    private final LeitorRegistrosCSV leitorRegistros;
+    private final MetricasImportacao.Etapas etapas;
+    private final ForkJoinPool pool;
+    private final int tamanhoBloco;
+    private final int blocosPendentes;
+
+    private final BlocoCSV registroAtual = new BlocoCSV(1);
+    private final ConversorLancamentoCSV conversor = new ConversorLancamentoCSV();
+    private final Deque<Future<BlocoConvertido>> pendentes = new ArrayDeque<>();
+    private Iterator<LinhaImportacaoCSV> blocoAtual = Collections.emptyIterator();
+    private int linhaAtual;
+    private boolean fimArquivo;
+
+    LeitorLinhasCSV(LeitorRegistrosCSV leitorRegistros, MetricasImportacao.Etapas etapas) {
+        this(leitorRegistros, etapas, null, 1, 1);
+    }
+
+    LeitorLinhasCSV(LeitorRegistrosCSV leitorRegistros, MetricasImportacao.Etapas etapas, ForkJoinPool pool, int tamanhoBloco, int blocosPendentes) {
+        this.leitorRegistros = leitorRegistros;
+        this.etapas = etapas;
+        this.pool = pool;
+        this.tamanhoBloco = tamanhoBloco;
+        this.blocosPendentes = blocosPendentes;
+    }
+
+    // Próxima linha do arquivo, ou null quando não houver mais linhas
+    LinhaImportacaoCSV proxima() throws IOException {
+        if (pool == null) {
+            registroAtual.limpar();
+            if (lerBloco(registroAtual, 1) == 0) {
+                return null;
+            }
+            long inicio = System.nanoTime();
+            LinhaImportacaoCSV linha = conversor.converter(registroAtual, 0, ++linhaAtual);
+            etapas.adicionarConversao(System.nanoTime() - inicio);
+            return linha;
+        }
+
+        while (!blocoAtual.hasNext()) {
+            // Completa a janela antes de esperar pelo bloco mais antigo, para o pool não ficar ocioso
+            while (!fimArquivo && pendentes.size() < blocosPendentes) {
+                submeterBloco();
+            }
+            if (pendentes.isEmpty()) {
+                return null;
+            }
+            BlocoConvertido bloco = aguardar(pendentes.poll());
+            etapas.adicionarConversao(bloco.nanos);
+            blocoAtual = bloco.linhas.iterator();
+        }
+        return blocoAtual.next();
+    }
+
+    private void submeterBloco() throws IOException {
+        BlocoCSV bloco = new BlocoCSV(tamanhoBloco);
+        int registros = lerBloco(bloco, tamanhoBloco);
+        if (registros < tamanhoBloco) {
+            fimArquivo = true;
+        }
+        if (registros == 0) {
+            return;
+        }
+
+        // O número de cada linha é fixado aqui, na ordem de leitura
+        int primeiraLinha = linhaAtual + 1;
+        linhaAtual += registros;
+        pendentes.add(pool.submit(() -> converterBloco(bloco, primeiraLinha)));
+    }
+
+    private int lerBloco(BlocoCSV bloco, int quantidade) throws IOException {
+        long inicio = System.nanoTime();
+        try {
+            while (bloco.getRegistros() < quantidade && leitorRegistros.lerRegistro(bloco)) {
+                // lerRegistro já copiou o registro para o bloco
+            }
+            return bloco.getRegistros();
+        } finally {
+            etapas.adicionarLeitura(System.nanoTime() - inicio);
+        }
+    }
+
+    // Roda numa thread do pool, com um conversor próprio reaproveitado por todas as linhas do bloco
+    private static BlocoConvertido converterBloco(BlocoCSV bloco, int primeiraLinha) {
+        long inicio = System.nanoTime();
+        ConversorLancamentoCSV conversorBloco = new ConversorLancamentoCSV();
+        List<LinhaImportacaoCSV> convertidas = new ArrayList<>(bloco.getRegistros());
+        for (int i = 0; i < bloco.getRegistros(); i++) {
+            convertidas.add(conversorBloco.converter(bloco, i, primeiraLinha + i));
+        }
+        return new BlocoConvertido(convertidas, System.nanoTime() - inicio);
+    }
+
+    private BlocoConvertido aguardar(Future<BlocoConvertido> bloco) throws IOException {
+        try {
+            return bloco.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Importação interrompida.");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    // Descarta os blocos ainda não entregues quando a importação termina antes do fim do arquivo
+    @Override
+    public void close() {
+        pendentes.forEach(bloco -> bloco.cancel(false));
+        pendentes.clear();
+    }
+
+    private static class BlocoConvertido {
+
+        private final List<LinhaImportacaoCSV> linhas;
+        private final long nanos;
+
+        private BlocoConvertido(List<LinhaImportacaoCSV> linhas, long nanos) {
+            this.linhas = linhas;
+            this.nanos = nanos;
+        }
+    }
+}
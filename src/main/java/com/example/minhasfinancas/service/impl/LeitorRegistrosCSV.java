@@ -0,0 +1,88 @@
+package com.example.minhasfinancas.service.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Separa os registros de um CSV sem montar String[]: os caracteres de cada registro são copiados como estão
+// (com as aspas) para um BlocoCSV. Quebras de linha dentro de campos entre aspas fazem parte do registro, como no opencsv.
+// A barra invertida é o caractere de escape padrão do opencsv: \" não abre nem fecha aspas.
+class LeitorRegistrosCSV {
+
+    private static final int TAMANHO_BUFFER = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[TAMANHO_BUFFER];
+    private int posicao;
+    private int limite;
+
+    LeitorRegistrosCSV(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Copia o próximo registro para o bloco; devolve false no fim do arquivo
+    boolean lerRegistro(BlocoCSV bloco) throws IOException {
+        return ler(bloco);
+    }
+
+    // Descarta o próximo registro (o cabeçalho); devolve false se o arquivo estiver vazio
+    boolean pularRegistro() throws IOException {
+        return ler(null);
+    }
+
+    private boolean ler(BlocoCSV bloco) throws IOException {
+        boolean entreAspas = false;
+        boolean escapado = false;
+        boolean encontrado = false;
+
+        while (true) {
+            if (posicao == limite && !preencher()) {
+                break;
+            }
+
+            int i = posicao;
+            while (i < limite) {
+                char c = buffer[i];
+                if (escapado) {
+                    // Só aspas e a própria barra são escapadas; o caractere que vem depois de outra barra é lido normalmente
+                    escapado = false;
+                    if (c == '"' || c == '\\') {
+                        i++;
+                        continue;
+                    }
+                }
+                if (c == '\\') {
+                    escapado = true;
+                } else if (c == '"') {
+                    entreAspas = !entreAspas;
+                } else if (c == '\n' && !entreAspas) {
+                    break;
+                }
+                i++;
+            }
+
+            if (bloco != null) {
+                bloco.adicionar(buffer, posicao, i - posicao);
+            }
+            encontrado |= i > posicao;
+
+            if (i < limite) {
+                posicao = i + 1;
+                encontrado = true;
+                break;
+            }
+            posicao = limite;
+        }
+
+        if (encontrado && bloco != null) {
+            bloco.fecharRegistro();
+        }
+        return encontrado;
+    }
+
+    private boolean preencher() throws IOException {
+        int lidos = reader.read(buffer, 0, buffer.length);
+        posicao = 0;
+        limite = Math.max(lidos, 0);
+        return lidos > 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.service.ImportacaoAssincronaService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Remove da memória as importações assíncronas finalizadas há mais tempo que a retenção configurada
+@Component
+public class LimpezaImportacoesJob {
+
+    private final ImportacaoAssincronaService importacaoAssincronaService;
+
+    public LimpezaImportacoesJob(ImportacaoAssincronaService importacaoAssincronaService) {
+        this.importacaoAssincronaService = importacaoAssincronaService;
+    }
+
+    @Scheduled(fixedDelayString = "${importacao.async.limpeza-ms:60000}")
+    public void limpar() {
+        importacaoAssincronaService.removerFinalizadas();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+import lombok.Getter;
+
+// Resultado da conversão de uma linha do CSV: ou o lançamento montado, ou a mensagem de erro da linha.
+// A categoria fica só como descrição e é resolvida depois, na thread da importação.
+@Getter
+public class LinhaImportacaoCSV {
+
+    private final int linha;
+    private final Lancamento lancamento;
+    private final String descricaoCategoria;
+    private final String mensagemErro;
+
+    private LinhaImportacaoCSV(int linha, Lancamento lancamento, String descricaoCategoria, String mensagemErro) {
+        this.linha = linha;
+        this.lancamento = lancamento;
+        this.descricaoCategoria = descricaoCategoria;
+        this.mensagemErro = mensagemErro;
+    }
+
+    public static LinhaImportacaoCSV valida(int linha, Lancamento lancamento, String descricaoCategoria) {
+        return new LinhaImportacaoCSV(linha, lancamento, descricaoCategoria, null);
+    }
+
+    public static LinhaImportacaoCSV invalida(int linha, String mensagemErro) {
+        return new LinhaImportacaoCSV(linha, null, null, mensagemErro);
+    }
+
+    public boolean isValida() {
+        return lancamento != null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.minhasfinancas.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Timers por etapa da importação de CSV (importacao.etapa) e contadores de linhas aceitas/rejeitadas (importacao.linhas).
+// O tempo de cada etapa é somado durante a importação e registrado uma vez no final, para não pagar um timer por linha.
+@Component
+public class MetricasImportacao {
+
+    private final MeterRegistry registry;
+    private final Counter linhasAceitas;
+    private final Counter linhasRejeitadas;
+    private final Counter linhasDuplicadas;
+
+    public MetricasImportacao(MeterRegistry registry) {
+        this.registry = registry;
+        this.linhasAceitas = Counter.builder("importacao.linhas").tag("resultado", "aceita")
+                .description("Linhas de CSV importadas").register(registry);
+        this.linhasRejeitadas = Counter.builder("importacao.linhas").tag("resultado", "rejeitada")
+                .description("Linhas de CSV rejeitadas na validação").register(registry);
+        this.linhasDuplicadas = Counter.builder("importacao.linhas").tag("resultado", "duplicada")
+                .description("Linhas de CSV ignoradas por já estarem gravadas").register(registry);
+    }
+
+    public Etapas iniciar(String modo) {
+        return new Etapas(modo);
+    }
+
+    public void registrar(Etapas etapas, long nanosResolucao, int aceitas, int rejeitadas, int duplicadas) {
+        // Com a validação paralela, "validacao" é a soma do tempo gasto por todas as threads do pool
+        registrarEtapa(etapas.modo, "leitura", etapas.leitura);
+        registrarEtapa(etapas.modo, "validacao", etapas.conversao);
+        registrarEtapa(etapas.modo, "resolucao", nanosResolucao);
+        registrarEtapa(etapas.modo, "persistencia", etapas.persistencia);
+        registrarEtapa(etapas.modo, "serializacao", etapas.serializacao);
+        linhasAceitas.increment(aceitas);
+        linhasRejeitadas.increment(rejeitadas);
+        linhasDuplicadas.increment(duplicadas);
+    }
+
+    private void registrarEtapa(String modo, String etapa, long nanos) {
+        Timer.builder("importacao.etapa")
+                .tag("modo", modo)
+                .tag("etapa", etapa)
+                .description("Tempo gasto em cada etapa de uma importação de CSV")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Tempo acumulado de uma única importação
+    public static class Etapas {
+
+        private final String modo;
+        private long leitura;
+        private long conversao;
+        private long persistencia;
+        private long serializacao;
+
+        private Etapas(String modo) {
+            this.modo = modo;
+        }
+
+        public void adicionarLeitura(long nanos) {
+            leitura += nanos;
+        }
+
+        public void adicionarConversao(long nanos) {
+            conversao += nanos;
+        }
+
+        public void adicionarPersistencia(long nanos) {
+            persistencia += nanos;
+        }
+
+        public void adicionarSerializacao(long nanos) {
+            serializacao += nanos;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.repository.Geohash;
+import com.example.minhasfinancas.model.repository.LancamentoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Calcula o geohash dos lançamentos com coordenadas gravados antes da coluna existir.
+// Os lotes seguem a ordem de id e cada um é gravado em sua própria transação.
+@Slf4j
+@Component
+public class PreenchimentoGeohashJob {
+
+    private static final int TAMANHO_LOTE = 500;
+
+    private final LancamentoRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    public PreenchimentoGeohashJob(LancamentoRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preencher() {
+        long ultimoId = 0;
+        int preenchidos = 0;
+        List<Lancamento> lote;
+
+        do {
+            long aPartirDe = ultimoId;
+            lote = transactionTemplate.execute(status -> {
+                List<Lancamento> lancamentos = repository.buscarSemGeohash(aPartirDe, PageRequest.of(0, TAMANHO_LOTE));
+                lancamentos.forEach(lancamento -> lancamento.setGeohash(Geohash.codificar(lancamento.getLatitude(), lancamento.getLongitude())));
+                return lancamentos;
+            });
+
+            for (Lancamento lancamento : lote) {
+                ultimoId = lancamento.getId();
+                if (lancamento.getGeohash() != null) {
+                    preenchidos++;
+                }
+            }
+        } while (lote.size() == TAMANHO_LOTE);
+
+        if (preenchidos > 0) {
+            log.info("Geohash preenchido em {} lançamentos.", preenchidos);
+        }
+    }
+}
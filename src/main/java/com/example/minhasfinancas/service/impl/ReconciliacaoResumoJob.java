@@ -0,0 +1,44 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.api.dto.ReconciliacaoResumoDTO;
+import com.example.minhasfinancas.model.repository.ResumoLancamentoRepository;
+import com.example.minhasfinancas.service.ResumoLancamentoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class ReconciliacaoResumoJob {
+
+    private final ResumoLancamentoService resumoLancamentoService;
+    private final ResumoLancamentoRepository resumoLancamentoRepository;
+
+    public ReconciliacaoResumoJob(ResumoLancamentoService resumoLancamentoService, ResumoLancamentoRepository resumoLancamentoRepository) {
+        this.resumoLancamentoService = resumoLancamentoService;
+        this.resumoLancamentoRepository = resumoLancamentoRepository;
+    }
+
+    // Tabela recém-criada: preenche o resumo com os lançamentos já existentes sem esperar o agendamento.
+    // Várias instâncias podem fazer isso ao mesmo tempo: cada célula só é criada se ainda estiver ausente.
+    @EventListener(ApplicationReadyEvent.class)
+    public void preencherResumoVazio() {
+        if (resumoLancamentoRepository.count() == 0) {
+            reconciliar();
+        }
+    }
+
+    @Scheduled(cron = "${resumo.reconciliacao.cron:0 30 3 * * *}")
+    public void reconciliar() {
+        ReconciliacaoResumoDTO resultado = resumoLancamentoService.reconciliar();
+
+        if (resultado.getDivergencias() > 0) {
+            log.warn("Reconciliação do resumo de lançamentos: {} de {} células divergentes. {}", resultado.getDivergencias(),
+                    resultado.getCelulasVerificadas(), resultado.getMensagensDivergencias());
+        } else {
+            log.info("Reconciliação do resumo de lançamentos: {} células verificadas, nenhuma divergência.", resultado.getCelulasVerificadas());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.api.dto.ReconciliacaoSaldoDTO;
+import com.example.minhasfinancas.service.SaldoUsuarioService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class ReconciliacaoSaldoJob {
+
+    private final SaldoUsuarioService saldoUsuarioService;
+
+    public ReconciliacaoSaldoJob(SaldoUsuarioService saldoUsuarioService) {
+        this.saldoUsuarioService = saldoUsuarioService;
+    }
+
+    @Scheduled(cron = "${saldo.reconciliacao.cron:0 0 3 * * *}")
+    public void reconciliar() {
+        ReconciliacaoSaldoDTO resultado = saldoUsuarioService.reconciliar();
+
+        if (resultado.getDivergencias() > 0) {
+            log.warn("Reconciliação de saldos: {} de {} usuários divergentes. {}", resultado.getDivergencias(),
+                    resultado.getUsuariosVerificados(), resultado.getMensagensDivergencias());
+        } else {
+            log.info("Reconciliação de saldos: {} usuários verificados, nenhuma divergência.", resultado.getUsuariosVerificados());
+        }
+    }
+}
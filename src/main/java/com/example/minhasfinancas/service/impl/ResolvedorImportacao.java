@@ -0,0 +1,50 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.model.entity.Categoria;
+import com.example.minhasfinancas.model.entity.Usuario;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Resolve usuário e categorias durante uma única importação: o usuário é buscado uma vez
+// e cada descrição de categoria distinta custa no máximo uma consulta
+public class ResolvedorImportacao {
+
+    private final UsuarioServiceImpl usuarioService;
+    private final CategoriaServiceImpl categoriaService;
+    private final Long usuarioId;
+
+    private Optional<Usuario> usuario;
+    private final Map<String, Optional<Categoria>> categorias = new HashMap<>();
+    private long nanosResolucao;
+
+    public ResolvedorImportacao(UsuarioServiceImpl usuarioService, CategoriaServiceImpl categoriaService, Long usuarioId) {
+        this.usuarioService = usuarioService;
+        this.categoriaService = categoriaService;
+        this.usuarioId = usuarioId;
+    }
+
+    public Optional<Usuario> obterUsuario() {
+        if (usuario == null) {
+            long inicio = System.nanoTime();
+            usuario = usuarioService.obterPorId(usuarioId);
+            nanosResolucao += System.nanoTime() - inicio;
+        }
+        return usuario;
+    }
+
+    public Optional<Categoria> obterCategoria(String descricao) {
+        long inicio = System.nanoTime();
+        try {
+            return categorias.computeIfAbsent(descricao.trim(), categoriaService::obterPorDescricao);
+        } finally {
+            nanosResolucao += System.nanoTime() - inicio;
+        }
+    }
+
+    // Tempo gasto resolvendo usuário e categorias, para as métricas da importação
+    public long getNanosResolucao() {
+        return nanosResolucao;
+    }
+}
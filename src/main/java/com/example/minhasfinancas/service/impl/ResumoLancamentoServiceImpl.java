@@ -0,0 +1,146 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.api.dto.ReconciliacaoResumoDTO;
+import com.example.minhasfinancas.api.dto.ResumoLancamentoDTO;
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.entity.ResumoLancamento;
+import com.example.minhasfinancas.model.repository.ContribuicaoResumo;
+import com.example.minhasfinancas.model.repository.LancamentoRepository;
+import com.example.minhasfinancas.model.repository.ResumoLancamentoRepository;
+import com.example.minhasfinancas.service.ResumoLancamentoService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+@Service
+public class ResumoLancamentoServiceImpl implements ResumoLancamentoService {
+
+    private final ResumoLancamentoRepository repository;
+    private final LancamentoRepository lancamentoRepository;
+
+    public ResumoLancamentoServiceImpl(ResumoLancamentoRepository repository, LancamentoRepository lancamentoRepository) {
+        this.repository = repository;
+        this.lancamentoRepository = lancamentoRepository;
+    }
+
+    // Chamado pelas operações de escrita de lançamentos, dentro da transação delas
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void atualizarResumo(ContribuicaoResumo anterior, ContribuicaoResumo atual) {
+        atualizarResumo(Collections.singletonList(anterior), Collections.singletonList(atual));
+    }
+
+    // Alterações em conjunto (ver LancamentoRepositoryCustom.agruparContribuicoes): as contribuições já chegam por célula
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void atualizarResumo(Collection<ContribuicaoResumo> anteriores, Collection<ContribuicaoResumo> atuais) {
+        Map<ContribuicaoResumo, ContribuicaoResumo> variacoes = new HashMap<>();
+        for (ContribuicaoResumo anterior : anteriores) {
+            if (anterior != null && anterior.isCompleta()) {
+                variacoes.merge(anterior, anterior.negar(), ContribuicaoResumo::somar);
+            }
+        }
+        for (ContribuicaoResumo atual : atuais) {
+            if (atual != null && atual.isCompleta()) {
+                variacoes.merge(atual, atual, ContribuicaoResumo::somar);
+            }
+        }
+        aplicarVariacoes(variacoes.values());
+    }
+
+    // Lançamentos recém-gravados em conjunto (importações): uma atualização por célula, não por lançamento
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adicionarAoResumo(Collection<Lancamento> lancamentos) {
+        Map<ContribuicaoResumo, ContribuicaoResumo> variacoes = new HashMap<>();
+        for (Lancamento lancamento : lancamentos) {
+            ContribuicaoResumo contribuicao = ContribuicaoResumo.de(lancamento);
+            if (contribuicao.isCompleta()) {
+                variacoes.merge(contribuicao, contribuicao, ContribuicaoResumo::somar);
+            }
+        }
+        aplicarVariacoes(variacoes.values());
+    }
+
+    private void aplicarVariacoes(Collection<ContribuicaoResumo> variacoes) {
+        for (ContribuicaoResumo variacao : variacoes) {
+            if (!variacao.isNula()) {
+                aplicarVariacao(variacao);
+            }
+        }
+    }
+
+    private void aplicarVariacao(ContribuicaoResumo variacao) {
+        int atualizadas = repository.adicionarACelula(variacao.getIdUsuario(), variacao.getAno(), variacao.getMes(),
+                variacao.getTipo(), variacao.getStatus(), variacao.getIdCategoria(), variacao.getQuantidade(), variacao.getValor());
+        if (atualizadas == 0) {
+            // Primeira alteração da célula: calcula a célula completa, que já inclui a alteração atual. Se outra
+            // transação criar a mesma célula ao mesmo tempo, o INSERT aplica só a variação sobre a que ela gravou.
+            ContribuicaoResumo calculada = lancamentoRepository.obterResumoCalculado(variacao.getIdUsuario(), variacao.getAno(),
+                    variacao.getMes(), variacao.getTipo(), variacao.getStatus(), variacao.getIdCategoria())
+                    .orElseGet(variacao::zerada);
+            repository.criarOuAdicionarACelula(calculada, variacao);
+        }
+    }
+
+    // Usuários ainda sem nenhuma célula (lançamentos anteriores à tabela e ainda não reconciliados) são respondidos
+    // agregando os lançamentos, com o mesmo resultado
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResumoLancamentoDTO> obterResumo(Long idUsuario, int anoInicio, int mesInicio, int anoFim, int mesFim) {
+        int inicio = anoInicio * 100 + mesInicio;
+        int fim = anoFim * 100 + mesFim;
+
+        List<ResumoLancamentoDTO> resumo = repository.obterResumoPorPeriodo(idUsuario, anoInicio, anoFim, inicio, fim);
+        if (resumo.isEmpty() && !repository.existsByIdUsuario(idUsuario)) {
+            return lancamentoRepository.calcularResumoPorPeriodo(idUsuario, anoInicio, anoFim, inicio, fim);
+        }
+        return resumo;
+    }
+
+    // Recalcula todas as células a partir dos lançamentos, corrige as que divergirem e informa as diferenças.
+    // Também preenche as células de lançamentos gravados antes da tabela existir.
+    // As células são bloqueadas antes do cálculo: uma escrita concorrente fica esperando com o incremento da sua
+    // célula, então nem o cálculo nem o valor armazenado incluem a alteração dela, e ela é somada depois da correção.
+    // Células que não existiam são criadas só se continuarem ausentes (outra transação ou instância pode criá-las).
+    @Override
+    @Transactional
+    public ReconciliacaoResumoDTO reconciliar() {
+        List<ResumoLancamento> armazenadas = repository.obterTodasParaAtualizacao();
+
+        Map<ContribuicaoResumo, ContribuicaoResumo> calculadas = new HashMap<>();
+        for (ContribuicaoResumo calculada : lancamentoRepository.obterResumosCalculados()) {
+            calculadas.put(calculada, calculada);
+        }
+
+        List<String> mensagensDivergencias = new ArrayList<>();
+        int celulas = 0;
+        for (ResumoLancamento armazenada : armazenadas) {
+            ContribuicaoResumo chave = new ContribuicaoResumo(armazenada.getIdUsuario(), armazenada.getAno(), armazenada.getMes(),
+                    armazenada.getTipo(), armazenada.getStatus(), armazenada.getIdCategoria(), armazenada.getQuantidade(), armazenada.getTotal());
+            ContribuicaoResumo calculada = calculadas.remove(chave);
+            long quantidade = calculada != null ? calculada.getQuantidade() : 0;
+            BigDecimal total = calculada != null ? calculada.getValor() : BigDecimal.ZERO;
+            celulas++;
+
+            if (chave.getQuantidade() != quantidade || chave.getValor().compareTo(total) != 0) {
+                mensagensDivergencias.add("Usuário " + chave.getIdUsuario() + ", " + chave.getMes() + "/" + chave.getAno() + ", "
+                        + chave.getTipo() + ", " + chave.getStatus() + ", categoria " + chave.getIdCategoria()
+                        + ": armazenado " + chave.getQuantidade() + " lançamento(s) e " + chave.getValor()
+                        + ", calculado " + quantidade + " e " + total + ".");
+                armazenada.setQuantidade(quantidade);
+                armazenada.setTotal(total);
+            }
+        }
+
+        for (ContribuicaoResumo calculada : calculadas.values()) {
+            repository.criarCelulaSeAusente(calculada);
+            celulas++;
+        }
+
+        return new ReconciliacaoResumoDTO(celulas, mensagensDivergencias.size(), mensagensDivergencias);
+    }
+}
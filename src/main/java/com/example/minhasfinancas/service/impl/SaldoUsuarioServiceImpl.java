@@ -0,0 +1,97 @@
+package com.example.minhasfinancas.service.impl;
+
+import com.example.minhasfinancas.api.dto.ReconciliacaoSaldoDTO;
+import com.example.minhasfinancas.model.entity.SaldoUsuario;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.repository.ContribuicaoSaldo;
+import com.example.minhasfinancas.model.repository.LancamentoRepository;
+import com.example.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.example.minhasfinancas.service.SaldoUsuarioService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+@Service
+public class SaldoUsuarioServiceImpl implements SaldoUsuarioService {
+
+    private final SaldoUsuarioRepository repository;
+    private final LancamentoRepository lancamentoRepository;
+
+    public SaldoUsuarioServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository) {
+        this.repository = repository;
+        this.lancamentoRepository = lancamentoRepository;
+    }
+
+    // Chamado pelas operações de escrita de lançamentos, dentro da transação delas
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void atualizarSaldo(ContribuicaoSaldo anterior, ContribuicaoSaldo atual) {
+        Map<Long, BigDecimal> variacoes = new HashMap<>();
+        if (anterior != null && anterior.getIdUsuario() != null) {
+            variacoes.merge(anterior.getIdUsuario(), anterior.getValor().negate(), BigDecimal::add);
+        }
+        if (atual != null && atual.getIdUsuario() != null) {
+            variacoes.merge(atual.getIdUsuario(), atual.getValor(), BigDecimal::add);
+        }
+
+        variacoes.forEach((idUsuario, variacao) -> {
+            if (variacao.signum() != 0) {
+                aplicarVariacao(idUsuario, variacao);
+            }
+        });
+    }
+
+    private void aplicarVariacao(Long idUsuario, BigDecimal variacao) {
+        if (repository.adicionarAoSaldo(idUsuario, variacao) == 0) {
+            // Primeira alteração do usuário: calcula o saldo completo, que já inclui a alteração atual. Se outra
+            // transação criar o saldo ao mesmo tempo, o INSERT aplica só a variação sobre o que ela gravou.
+            BigDecimal saldo = lancamentoRepository.obterSaldoPorUsuarioEStatus(idUsuario, StatusLancamento.EFETIVADO);
+            repository.criarOuAdicionarAoSaldo(idUsuario, saldo == null ? BigDecimal.ZERO : saldo, variacao);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BigDecimal> obterSaldo(Long idUsuario) {
+        return repository.findById(idUsuario).map(SaldoUsuario::getSaldo);
+    }
+
+    // Recalcula todos os saldos a partir dos lançamentos, corrige os que divergirem e informa as diferenças.
+    // Os saldos são bloqueados antes do cálculo, como as células em ResumoLancamentoServiceImpl.reconciliar.
+    @Override
+    @Transactional
+    public ReconciliacaoSaldoDTO reconciliar() {
+        List<SaldoUsuario> bloqueados = repository.obterTodosParaAtualizacao();
+
+        Map<Long, BigDecimal> calculados = new HashMap<>();
+        for (ContribuicaoSaldo contribuicao : lancamentoRepository.obterSaldosEfetivadosPorUsuario()) {
+            calculados.put(contribuicao.getIdUsuario(), contribuicao.getValor());
+        }
+
+        Map<Long, SaldoUsuario> armazenados = new HashMap<>();
+        for (SaldoUsuario saldoUsuario : bloqueados) {
+            armazenados.put(saldoUsuario.getIdUsuario(), saldoUsuario);
+        }
+
+        Set<Long> usuarios = new TreeSet<>(calculados.keySet());
+        usuarios.addAll(armazenados.keySet());
+
+        List<String> mensagensDivergencias = new ArrayList<>();
+        for (Long idUsuario : usuarios) {
+            BigDecimal calculado = calculados.getOrDefault(idUsuario, BigDecimal.ZERO);
+            SaldoUsuario armazenado = armazenados.get(idUsuario);
+
+            if (armazenado == null) {
+                repository.criarSaldoSeAusente(idUsuario, calculado);
+            } else if (armazenado.getSaldo() == null || armazenado.getSaldo().compareTo(calculado) != 0) {
+                mensagensDivergencias.add("Usuário " + idUsuario + ": saldo armazenado " + armazenado.getSaldo() + ", calculado " + calculado + ".");
+                armazenado.setSaldo(calculado);
+            }
+        }
+
+        return new ReconciliacaoSaldoDTO(usuarios.size(), mensagensDivergencias.size(), mensagensDivergencias);
+    }
+}
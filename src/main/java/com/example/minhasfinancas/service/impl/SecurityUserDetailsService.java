@@ -2,19 +2,35 @@ package com.example.minhasfinancas.service.impl;
 
 import com.example.minhasfinancas.model.entity.Usuario;
 import com.example.minhasfinancas.model.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class SecurityUserDetailsService implements UserDetailsService {
 
     private UsuarioRepository usuarioRepository;
 
-    public SecurityUserDetailsService(UsuarioRepository usuarioRepository) {
+    private final boolean principalDasClaims;
+    private final Cache<String, Boolean> usuariosAtivos;
+
+    public SecurityUserDetailsService(UsuarioRepository usuarioRepository,
+                                      @Value("${jwt.principal.usar-claims:true}") boolean principalDasClaims,
+                                      @Value("${jwt.principal.verificacao-usuario-segundos:0}") long segundosVerificacaoUsuario) {
         this.usuarioRepository = usuarioRepository;
+        this.principalDasClaims = principalDasClaims;
+        this.usuariosAtivos = segundosVerificacaoUsuario > 0
+                ? Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(segundosVerificacaoUsuario, TimeUnit.SECONDS).build()
+                : null;
     }
 
     @Override
@@ -26,4 +42,33 @@ public class SecurityUserDetailsService implements UserDetailsService {
                 .password(usuarioEncontrado.getSenha())
                 .roles("USER").build();
     }
+
+    // Monta o usuário autenticado a partir das claims de um token já verificado.
+    // Com jwt.principal.usar-claims=true não há consulta ao banco por requisição; se
+    // jwt.principal.verificacao-usuario-segundos for maior que zero, a existência do usuário
+    // é confirmada no banco no máximo uma vez por esse intervalo (usuário removido perde o acesso).
+    public Optional<UserDetails> carregarPorClaims(Claims claims) {
+        String email = claims.getSubject();
+        if (email == null) {
+            return Optional.empty();
+        }
+
+        if (!principalDasClaims) {
+            try {
+                return Optional.of(loadUserByUsername(email));
+            } catch (UsernameNotFoundException e) {
+                return Optional.empty();
+            }
+        }
+
+        if (usuariosAtivos != null && !usuariosAtivos.get(email, usuarioRepository::existsByEmail)) {
+            return Optional.empty();
+        }
+
+        // A senha não faz parte do token e não é usada depois da autenticação por JWT
+        return Optional.of(User.builder()
+                .username(email)
+                .password("")
+                .roles("USER").build());
+    }
 }
@@ -7,6 +7,8 @@ import com.example.minhasfinancas.model.entity.Usuario;
 import com.example.minhasfinancas.model.repository.UsuarioRepository;
 import com.example.minhasfinancas.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -43,6 +45,10 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = UsuarioRepository.CACHE_POR_EMAIL, key = "#p0.email", condition = "#p0.email != null"),
+            @CacheEvict(cacheNames = UsuarioRepository.CACHE_POR_ID, key = "#p0.id", condition = "#p0.id != null")
+    })
     public Usuario salvarUsuario(Usuario usuario) {
         validarEmail(usuario.getEmail());
         criptografarSenha(usuario);
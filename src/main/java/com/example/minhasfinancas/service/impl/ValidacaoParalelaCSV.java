@@ -0,0 +1,50 @@
+package com.example.minhasfinancas.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+// Pool da etapa de validação das importações de CSV. Só o parse e a validação de cada linha rodam aqui;
+// leitura do arquivo, resolução de categorias e gravação continuam na thread (e na transação) da importação.
+// O pool é compartilhado entre importações simultâneas e cada uma mantém no máximo 2 blocos por thread em andamento.
+@Component
+public class ValidacaoParalelaCSV {
+
+    private final boolean habilitada;
+    private final int tamanhoBloco;
+    private final int blocosPendentes;
+    private final ForkJoinPool pool;
+
+    public ValidacaoParalelaCSV(@Value("${importacao.validacao-paralela.habilitada:true}") boolean habilitada,
+                                @Value("${importacao.validacao-paralela.threads:0}") int threads,
+                                @Value("${importacao.validacao-paralela.tamanho-bloco:1000}") int tamanhoBloco) {
+        int paralelismo = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.habilitada = habilitada;
+        this.tamanhoBloco = tamanhoBloco;
+        this.blocosPendentes = paralelismo * 2;
+        this.pool = habilitada ? new ForkJoinPool(paralelismo, ValidacaoParalelaCSV::novaThread, null, false) : null;
+    }
+
+    LeitorLinhasCSV abrir(LeitorRegistrosCSV leitorRegistros, MetricasImportacao.Etapas etapas) {
+        if (!habilitada) {
+            return new LeitorLinhasCSV(leitorRegistros, etapas);
+        }
+        return new LeitorLinhasCSV(leitorRegistros, etapas, pool, tamanhoBloco, blocosPendentes);
+    }
+
+    private static ForkJoinWorkerThread novaThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("importacao-validacao-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
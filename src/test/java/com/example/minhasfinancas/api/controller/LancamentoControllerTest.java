@@ -4,17 +4,18 @@ import com.example.minhasfinancas.MinhasfinancasApplication;
 import com.example.minhasfinancas.api.dto.AtualizaStatusDTO;
 import com.example.minhasfinancas.api.dto.ImportacaoResultadoDTO;
 import com.example.minhasfinancas.api.dto.LancamentoDTO;
+import com.example.minhasfinancas.api.dto.PaginaLancamentosDTO;
 import com.example.minhasfinancas.exception.RegraNegocioException;
 import com.example.minhasfinancas.model.entity.Categoria;
 import com.example.minhasfinancas.model.entity.Lancamento;
 import com.example.minhasfinancas.model.entity.Usuario;
 import com.example.minhasfinancas.model.enums.StatusLancamento;
 import com.example.minhasfinancas.model.enums.TipoLancamento;
+import com.example.minhasfinancas.model.repository.LancamentoFiltro;
 import com.example.minhasfinancas.model.repository.LancamentoRepository;
 import com.example.minhasfinancas.service.LancamentoService;
 import com.example.minhasfinancas.service.impl.UsuarioServiceImpl;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.opencsv.exceptions.CsvValidationException;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -30,6 +31,7 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -90,7 +92,11 @@ public class LancamentoControllerTest {
         AtualizaStatusDTO atualizaStatusDTO = new AtualizaStatusDTO();
         atualizaStatusDTO.setStatus("EFETIVADO");
 
-        Mockito.when(service.obterPorId(1L)).thenReturn(Optional.of(lancamento));
+        Mockito.when(service.transicionarStatus(1L, StatusLancamento.EFETIVADO)).thenReturn(true);
+        Mockito.when(service.obterPorId(1L)).thenAnswer(invocacao -> {
+            lancamento.setStatus(StatusLancamento.EFETIVADO);
+            return Optional.of(lancamento);
+        });
 
         // Ação
         ResponseEntity response = lancamentoController.atualizarStatus(1L, atualizaStatusDTO);
@@ -99,15 +105,39 @@ public class LancamentoControllerTest {
         Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         Assertions.assertThat(response.getBody()).isEqualTo(lancamento); // Verifica se o corpo da resposta é o lançamento atualizado
 
-        // Verifica se o status do lançamento foi atualizado para EFETIVADO
-        Mockito.verify(service, Mockito.times(1)).atualizar(lancamento);
+        // A transição é feita pelo UPDATE condicional, sem carregar e regravar o lançamento
+        Mockito.verify(service, Mockito.times(1)).transicionarStatus(1L, StatusLancamento.EFETIVADO);
+        Mockito.verify(service, Mockito.never()).atualizar(Mockito.any());
         Assertions.assertThat(lancamento.getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
     }
 
+    @Test
+    public void naoDeveAlterarStatusDeLancamentoJaEfetivado() {
+        // Cenário
+        Lancamento lancamento = new Lancamento();
+        lancamento.setId(1L);
+        lancamento.setMes(LocalDate.now().getMonthValue());
+        lancamento.setAno(LocalDate.now().getYear());
+        lancamento.setStatus(StatusLancamento.EFETIVADO);
+
+        AtualizaStatusDTO atualizaStatusDTO = new AtualizaStatusDTO();
+        atualizaStatusDTO.setStatus("CANCELADO");
+
+        Mockito.when(service.transicionarStatus(1L, StatusLancamento.CANCELADO)).thenReturn(false);
+        Mockito.when(service.obterPorId(1L)).thenReturn(Optional.of(lancamento));
+
+        // Ação
+        ResponseEntity response = lancamentoController.atualizarStatus(1L, atualizaStatusDTO);
+
+        // Verificação
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Assertions.assertThat(response.getBody()).isEqualTo("Não é possível atualizar o status de um lançamento que já foi efetivado ou cancelado.");
+    }
+
     @Test
     public void naoDeveBaixarLancamentosComMesInvalido() {
         // Ação
-        ResponseEntity response = lancamentoController.downloadLancamentos("Teste", 13, 2024, null, "DESPESA", 1L);
+        ResponseEntity response = lancamentoController.downloadLancamentos("Teste", 13, 2024, null, "DESPESA", 1L, "json");
 
         // Verificação
         Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
@@ -117,7 +147,7 @@ public class LancamentoControllerTest {
     @Test
     public void naoDeveBaixarLancamentosComAnoInvalido() {
         // Ação
-        ResponseEntity response = lancamentoController.downloadLancamentos("Teste", 12, 024, null, "DESPESA", 1L);
+        ResponseEntity response = lancamentoController.downloadLancamentos("Teste", 12, 024, null, "DESPESA", 1L, "json");
 
         // Verificação
         Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
@@ -128,17 +158,15 @@ public class LancamentoControllerTest {
     public void deveBaixarLancamentosComSucesso() {
         // Cenário: Usuário válido e lançamentos encontrados
         Usuario usuario = new Usuario();
-        Lancamento lancamento = new Lancamento();
-        lancamento.setDescricao("Lançamento Teste");
 
         // Simula a busca do usuário por ID
         Mockito.when(usuarioServiceImpl.obterPorId(1L)).thenReturn(Optional.of(usuario));
 
-        // Simula a busca de lançamentos que retornam um item
-        Mockito.when(service.buscar(Mockito.any())).thenReturn(Collections.singletonList(lancamento));
+        // Simula a existência de lançamentos para o filtro
+        Mockito.when(service.existeLancamento(Mockito.any())).thenReturn(true);
 
         // Ação: Realiza o download dos lançamentos
-        ResponseEntity<?> response = lancamentoController.downloadLancamentos("Lançamento Teste", null, null, null, "DESPESA", 1L);
+        ResponseEntity<?> response = lancamentoController.downloadLancamentos("Lançamento Teste", null, null, null, "DESPESA", 1L, "json");
 
         // Verificação: O status da resposta deve ser OK (200)
         Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -147,18 +175,39 @@ public class LancamentoControllerTest {
         Assertions.assertThat(response.getHeaders().get("Content-Disposition"))
                 .contains("attachment;filename=lancamentos.json");
 
-        // Verifica se o corpo da resposta é um byte array (JSON convertido)
-        Assertions.assertThat(response.getBody()).isInstanceOf(byte[].class);
+        // Verifica se o corpo da resposta é escrito em streaming
+        Assertions.assertThat(response.getBody()).isInstanceOf(StreamingResponseBody.class);
+    }
+
+    @Test
+    public void deveBaixarLancamentosEmCsvCompactado() {
+        Mockito.when(usuarioServiceImpl.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+        Mockito.when(service.existeLancamento(Mockito.any())).thenReturn(true);
+
+        ResponseEntity<?> response = lancamentoController.downloadLancamentos("Teste", null, null, null, "DESPESA", 1L, "csv.gz");
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(response.getHeaders().get("Content-Disposition"))
+                .contains("attachment;filename=lancamentos.csv.gz");
+        Assertions.assertThat(response.getHeaders().getContentType().toString()).isEqualTo("application/gzip");
+    }
+
+    @Test
+    public void naoDeveBaixarLancamentosComFormatoInvalido() {
+        ResponseEntity<?> response = lancamentoController.downloadLancamentos("Teste", null, null, null, "DESPESA", 1L, "xml");
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Assertions.assertThat(response.getBody()).isEqualTo("Formato inválido (deve ser 'json', 'csv', 'json.gz' ou 'csv.gz').");
     }
 
     @Test
     public void naoDeveBaixarLancamentosSemLancamentos() {
         // Cenário: Usuário válido e sem lançamentos encontrados
         Mockito.when(usuarioServiceImpl.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
-        Mockito.when(service.buscar(Mockito.any())).thenReturn(Collections.emptyList());
+        Mockito.when(service.existeLancamento(Mockito.any())).thenReturn(false);
 
         // Ação: Tentar baixar lançamentos
-        ResponseEntity<?> response = lancamentoController.downloadLancamentos("Teste", null, null, null, "DESPESA", 1L);
+        ResponseEntity<?> response = lancamentoController.downloadLancamentos("Teste", null, null, null, "DESPESA", 1L, "json");
 
         // Verificação: Status deve ser NO_CONTENT
         Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
@@ -190,7 +239,7 @@ public class LancamentoControllerTest {
         Mockito.when(usuarioServiceImpl.obterPorId(1L)).thenReturn(Optional.of(usuario));
 
         // Simula a busca de lançamentos que retorna um item
-        Mockito.when(service.buscar(Mockito.any(Lancamento.class)))
+        Mockito.when(service.buscar(Mockito.any(LancamentoFiltro.class)))
                 .thenReturn(Collections.singletonList(lancamento));
 
         // Ação: Realiza a busca dos lançamentos
@@ -371,7 +420,7 @@ public class LancamentoControllerTest {
     }
 
     @Test
-    public void deveImportarLancamentosCSVComSucesso() throws IOException, CsvValidationException {
+    public void deveImportarLancamentosCSVComSucesso() throws IOException {
         // Cenário
         Long usuarioId = 1L;
         MockMultipartFile file = new MockMultipartFile("file", "lancamentos.csv", "text/csv", "conteúdo do csv".getBytes());
@@ -399,7 +448,7 @@ public class LancamentoControllerTest {
     }
 
     @Test
-    public void deveRetornarErroAoImportarLancamentosCSV() throws IOException, CsvValidationException {
+    public void deveRetornarErroAoImportarLancamentosCSV() throws IOException {
         // Cenário
         Long usuarioId = 1L;
         MockMultipartFile file = new MockMultipartFile("file", "invalid.csv", "text/csv", "conteúdo inválido".getBytes());
@@ -419,5 +468,37 @@ public class LancamentoControllerTest {
         Mockito.verify(service, Mockito.times(1)).importarLancamentosCSV(file, usuarioId);
     }
 
+    @Test
+    public void deveBuscarPaginaDeLancamentosComFiltrosECursor() {
+        // Cenário
+        Mockito.when(usuarioServiceImpl.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+        PaginaLancamentosDTO pagina = new PaginaLancamentosDTO(Collections.singletonList(new Lancamento()), "cursor");
+        Mockito.when(service.buscarPagina(Mockito.any(LancamentoFiltro.class), Mockito.eq("abc"), Mockito.eq(20), Mockito.eq(false)))
+                .thenReturn(pagina);
+
+        // Ação
+        ResponseEntity<?> response = lancamentoController.buscarPagina("Teste", 5, 2024, 3L, "RECEITA", 1L, "abc", 20, "asc");
+
+        // Verificação
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(response.getBody()).isEqualTo(pagina);
+        Mockito.verify(service).buscarPagina(
+                Mockito.eq(LancamentoFiltro.builder().idUsuario(1L).descricao("Teste").mes(5).ano(2024).categoriaId(3L).tipo(TipoLancamento.RECEITA).build()),
+                Mockito.eq("abc"), Mockito.eq(20), Mockito.eq(false));
+    }
+
+    @Test
+    public void naoDeveBuscarPaginaComOrdemInvalida() {
+        // Cenário
+        Mockito.when(usuarioServiceImpl.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+
+        // Ação
+        ResponseEntity<?> response = lancamentoController.buscarPagina(null, null, null, null, null, 1L, null, 50, "aleatoria");
+
+        // Verificação
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Assertions.assertThat(response.getBody()).isEqualTo("Ordem inválida (deve ser 'asc' ou 'desc').");
+    }
+
 }
 
@@ -1,7 +1,9 @@
 package com.example.minhasfinancas.model.repository;
 
 import com.example.minhasfinancas.MinhasfinancasApplication;
+import com.example.minhasfinancas.api.dto.AgrupamentoGeograficoDTO;
 import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.entity.Usuario;
 import com.example.minhasfinancas.model.enums.StatusLancamento;
 import com.example.minhasfinancas.model.enums.TipoLancamento;
 import static org.assertj.core.api.Assertions.*;
@@ -12,12 +14,17 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureTestEntityManager;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RunWith(SpringRunner.class)
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -103,6 +110,229 @@ public class LancamentoRepositoryTest {
 
     }
 
+    @Test
+    public void deveCalcularSaldoEfetivadoDoUsuarioEmUmaConsulta() {
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        Usuario outroUsuario = entityManager.persist(Usuario.builder().nome("outro").email("outro@email.com").senha("senha").build());
+
+        persistirLancamento(usuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 1000);
+        persistirLancamento(usuario, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 300);
+        persistirLancamento(usuario, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 5000);
+        persistirLancamento(outroUsuario, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 700);
+
+        BigDecimal saldo = repository.obterSaldoPorUsuarioEStatus(usuario.getId(), StatusLancamento.EFETIVADO);
+
+        assertThat(saldo).isEqualByComparingTo(BigDecimal.valueOf(700));
+        assertThat(repository.obterSaldoPorUsuarioEStatus(-1L, StatusLancamento.EFETIVADO)).isNull();
+    }
+
+    @Test
+    public void devePaginarPorCursorNaOrdemAnoMesId() {
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        Lancamento janeiro = persistirLancamento(usuario, 2024, 1);
+        Lancamento marco = persistirLancamento(usuario, 2024, 3);
+        Lancamento dezembroAnterior = persistirLancamento(usuario, 2023, 12);
+        Lancamento outroMarco = persistirLancamento(usuario, 2024, 3);
+        Specification<Lancamento> filtro = LancamentoSpecifications.filtro(LancamentoFiltro.builder().idUsuario(usuario.getId()).build());
+
+        List<Lancamento> primeiraPagina = repository.buscarPorCursor(filtro, null, false, 2);
+        CursorLancamento cursor = CursorLancamento.decodificar(CursorLancamento.de(primeiraPagina.get(1)).codificar());
+        List<Lancamento> segundaPagina = repository.buscarPorCursor(filtro, cursor, false, 2);
+        List<Lancamento> decrescente = repository.buscarPorCursor(filtro, null, true, 10);
+
+        assertThat(primeiraPagina).containsExactly(dezembroAnterior, janeiro);
+        assertThat(segundaPagina).containsExactly(marco, outroMarco);
+        assertThat(decrescente).containsExactly(outroMarco, marco, janeiro, dezembroAnterior);
+    }
+
+    @Test
+    public void devePercorrerLancamentosDoFiltroEmStreamDesanexados() {
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        Usuario outroUsuario = entityManager.persist(Usuario.builder().nome("outro").email("outro@email.com").senha("senha").build());
+        Lancamento marco = persistirLancamento(usuario, 2024, 3);
+        Lancamento janeiro = persistirLancamento(usuario, 2024, 1);
+        persistirLancamento(outroUsuario, 2024, 2);
+        entityManager.flush();
+        Specification<Lancamento> filtro = LancamentoSpecifications.filtro(LancamentoFiltro.builder().idUsuario(usuario.getId()).build());
+
+        List<Lancamento> lancamentos;
+        try (Stream<Lancamento> stream = repository.streamPorFiltro(filtro, 1)) {
+            lancamentos = stream.collect(Collectors.toList());
+        }
+
+        assertThat(lancamentos).extracting(Lancamento::getId).containsExactly(janeiro.getId(), marco.getId());
+        assertThat(lancamentos).allMatch(l -> !entityManager.getEntityManager().contains(l));
+        assertThat(lancamentos).allMatch(l -> usuario.getId().equals(l.getUsuario().getId()));
+    }
+
+    @Test
+    public void deveFiltrarSomentePelosCamposInformados() {
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        Usuario outroUsuario = entityManager.persist(Usuario.builder().nome("outro").email("outro@email.com").senha("senha").build());
+        Lancamento salario = persistirLancamento(usuario, 2024, 1);
+        salario.setDescricao("Salário de Janeiro");
+        Lancamento aluguel = persistirLancamento(usuario, 2024, 2);
+        aluguel.setDescricao("Aluguel 100%");
+        persistirLancamento(outroUsuario, 2024, 1).setDescricao("Salário de Janeiro");
+
+        List<Lancamento> porDescricao = repository.findAll(LancamentoSpecifications.filtro(
+                LancamentoFiltro.builder().idUsuario(usuario.getId()).descricao("SALÁRIO").build()));
+        List<Lancamento> porPercentual = repository.findAll(LancamentoSpecifications.filtro(
+                LancamentoFiltro.builder().idUsuario(usuario.getId()).descricao("100%").build()));
+        List<Lancamento> porMes = repository.findAll(LancamentoSpecifications.filtro(
+                LancamentoFiltro.builder().idUsuario(usuario.getId()).mes(2).tipo(TipoLancamento.RECEITA).build()));
+
+        assertThat(porDescricao).containsExactly(salario);
+        assertThat(porPercentual).containsExactly(aluguel);
+        assertThat(porMes).containsExactly(aluguel);
+    }
+
+    @Test
+    public void deveRanquearBuscaPorTextoPelaPosicaoDoTermoNoH2() {
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        Lancamento conta = persistirLancamento(usuario, 2024, 1);
+        conta.setDescricao("Conta de luz");
+        Lancamento luz = persistirLancamento(usuario, 2024, 2);
+        luz.setDescricao("Luz de março");
+        persistirLancamento(usuario, 2024, 3).setDescricao("Mercado");
+
+        List<Lancamento> resultado = repository.buscarPorTextoRanqueado(usuario.getId(), "LUZ", 10);
+
+        assertThat(resultado).containsExactly(luz, conta);
+    }
+
+    @Test
+    public void deveBuscarSomenteLancamentosDentroDaAreaPeloGeohash() {
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        Lancamento se = persistirLancamentoEm(usuario, -23.550520, -46.633308);
+        Lancamento paulista = persistirLancamentoEm(usuario, -23.561414, -46.655881);
+        persistirLancamentoEm(usuario, -22.906847, -43.172896);
+        Specification<Lancamento> filtro = LancamentoSpecifications.filtro(LancamentoFiltro.builder().idUsuario(usuario.getId()).build())
+                .and(LancamentoSpecifications.naArea(new AreaGeografica(-23.57, -46.66, -23.54, -46.62)));
+
+        List<Lancamento> resultado = repository.buscarPorCursor(filtro, null, false, 10);
+
+        assertThat(se.getGeohash()).hasSize(Geohash.PRECISAO).startsWith("6gyf4");
+        assertThat(resultado).containsExactlyInAnyOrder(se, paulista);
+    }
+
+    @Test
+    public void deveOrdenarPelaProximidadeDoPonto() {
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        Lancamento longe = persistirLancamentoEm(usuario, -23.561414, -46.655881);
+        Lancamento perto = persistirLancamentoEm(usuario, -23.551000, -46.634000);
+        Specification<Lancamento> filtro = LancamentoSpecifications.filtro(LancamentoFiltro.builder().idUsuario(usuario.getId()).build())
+                .and(LancamentoSpecifications.naArea(AreaGeografica.aoRedor(-23.550520, -46.633308, 5000)));
+
+        List<Lancamento> resultado = repository.buscarPorProximidade(filtro, -23.550520, -46.633308, 10);
+
+        assertThat(resultado).containsExactly(perto, longe);
+    }
+
+    @Test
+    public void deveAgruparPorCelulaDoGeohash() {
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        persistirLancamentoEm(usuario, -23.550520, -46.633308);
+        persistirLancamentoEm(usuario, -23.551000, -46.634000);
+        persistirLancamentoEm(usuario, -22.906800, -43.172900);
+        persistirLancamento(usuario, 2024, 2);
+        Specification<Lancamento> filtro = LancamentoSpecifications.filtro(LancamentoFiltro.builder().idUsuario(usuario.getId()).build());
+
+        List<AgrupamentoGeograficoDTO> resultado = repository.agruparPorCelula(filtro, 5);
+
+        assertThat(resultado).extracting(AgrupamentoGeograficoDTO::getCelula).containsExactly("6gyf4", "75cm9");
+        assertThat(resultado.get(0).getQuantidade()).isEqualTo(2L);
+        assertThat(resultado.get(0).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(20));
+        assertThat(resultado.get(1).getQuantidade()).isEqualTo(1L);
+    }
+
+    @Test
+    public void deveAtualizarOStatusSomenteDosPendentesDaLista() {
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        Lancamento pendente = persistirLancamento(usuario, 2024, 1);
+        Lancamento efetivado = persistirLancamento(usuario, 2024, 1);
+        efetivado.setStatus(StatusLancamento.EFETIVADO);
+        Lancamento foraDaLista = persistirLancamento(usuario, 2024, 1);
+        Specification<Lancamento> especificacao = LancamentoSpecifications.porIds(Arrays.asList(pendente.getId(), efetivado.getId()))
+                .and(LancamentoSpecifications.pendentes());
+
+        List<ContribuicaoResumo> contribuicoes = repository.agruparContribuicoes(especificacao);
+        int atualizados = repository.atualizarStatus(especificacao, StatusLancamento.CANCELADO);
+        entityManager.clear();
+
+        assertThat(contribuicoes).hasSize(1);
+        assertThat(contribuicoes.get(0).getQuantidade()).isEqualTo(1L);
+        assertThat(atualizados).isEqualTo(1);
+        assertThat(repository.findById(pendente.getId()).get().getStatus()).isEqualTo(StatusLancamento.CANCELADO);
+        assertThat(repository.findById(efetivado.getId()).get().getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+        assertThat(repository.findById(foraDaLista.getId()).get().getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+    }
+
+    @Test
+    public void deveDeletarOsLancamentosDoFiltro() {
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        persistirLancamento(usuario, 2024, 1);
+        persistirLancamento(usuario, 2024, 1);
+        Lancamento outroMes = persistirLancamento(usuario, 2024, 2);
+
+        int deletados = repository.deletar(LancamentoSpecifications.filtro(
+                LancamentoFiltro.builder().idUsuario(usuario.getId()).ano(2024).mes(1).build()));
+        entityManager.clear();
+
+        assertThat(deletados).isEqualTo(2);
+        assertThat(repository.findAll(LancamentoSpecifications.filtro(LancamentoFiltro.builder().idUsuario(usuario.getId()).build())))
+                .extracting(Lancamento::getId).containsExactly(outroMes.getId());
+    }
+
+    private Lancamento persistirLancamentoEm(Usuario usuario, double latitude, double longitude) {
+        Lancamento lancamento = criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamento.setLatitude(BigDecimal.valueOf(latitude));
+        lancamento.setLongitude(BigDecimal.valueOf(longitude));
+        return entityManager.persist(lancamento);
+    }
+
+    private Lancamento persistirLancamento(Usuario usuario, int ano, int mes) {
+        Lancamento lancamento = criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamento.setAno(ano);
+        lancamento.setMes(mes);
+        return entityManager.persist(lancamento);
+    }
+
+    private void persistirLancamento(Usuario usuario, TipoLancamento tipo, StatusLancamento status, int valor) {
+        Lancamento lancamento = criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamento.setTipo(tipo);
+        lancamento.setStatus(status);
+        lancamento.setValor(BigDecimal.valueOf(valor));
+        entityManager.persist(lancamento);
+    }
+
+    @Test
+    public void deveInserirIgnorandoLancamentosJaGravados() {
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+
+        int primeiraImportacao = repository.inserirIgnorandoDuplicados(Arrays.asList(
+                comHash(usuario, "hash-1"), comHash(usuario, "hash-2")));
+        Lancamento repetido = comHash(usuario, "hash-2");
+        Lancamento novo = comHash(usuario, "hash-3");
+        int segundaImportacao = repository.inserirIgnorandoDuplicados(Arrays.asList(repetido, novo));
+
+        assertThat(primeiraImportacao).isEqualTo(2);
+        assertThat(segundaImportacao).isEqualTo(1);
+        assertThat(repetido.getId()).isNull();
+        assertThat(repository.findById(novo.getId())).isPresent();
+        assertThat(repository.count()).isEqualTo(3);
+    }
+
+    private Lancamento comHash(Usuario usuario, String hash) {
+        Lancamento lancamento = criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamento.setHashImportacao(hash);
+        return lancamento;
+    }
+
     public Lancamento criarEPersistirUmLancamento() {
         Lancamento lancamento = criarLancamento();
         entityManager.persist(lancamento);
@@ -17,6 +17,8 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 
 @RunWith(SpringRunner.class)
@@ -87,4 +89,60 @@ public class CategoriaServiceTest {
         // Verificação
         Mockito.verify(repository, Mockito.times(1)).save(categoriaExistente);
     }
+
+    @Test
+    public void deveObterCategoriasDoCatalogoSemConsultarOBanco() {
+        // Cenario
+        Categoria mercado = Categoria.builder().id(1L).descricao("Mercado").build();
+        Categoria lazer = Categoria.builder().id(2L).descricao("Lazer").build();
+        Mockito.when(repository.findAll()).thenReturn(Arrays.asList(lazer, mercado));
+        service.recarregarCatalogo();
+
+        // Execução
+        Optional<Categoria> porId = service.obterPorId(2L);
+        Optional<Categoria> porDescricao = service.obterPorDescricao(" MERCADO ");
+
+        // Verificação
+        Assertions.assertThat(porId).contains(lazer);
+        Assertions.assertThat(porDescricao).contains(mercado);
+        Assertions.assertThat(service.listar()).containsExactly(mercado, lazer);
+        Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+        Mockito.verify(repository, Mockito.never()).findByDescricaoNormalizada(Mockito.anyString());
+    }
+
+    @Test
+    public void deveProcurarNoBancoComAMesmaNormalizacaoDoCatalogo() {
+        // Cenario
+        Categoria nova = Categoria.builder().id(4L).descricao("Viagem").build();
+        Mockito.when(repository.findAll()).thenReturn(Collections.emptyList());
+        Mockito.when(repository.findByDescricaoNormalizada("viagem")).thenReturn(Collections.singletonList(nova));
+        service.recarregarCatalogo();
+
+        // Execução
+        Optional<Categoria> categoria = service.obterPorDescricao("  VIAGEM ");
+
+        // Verificação
+        Assertions.assertThat(categoria).contains(nova);
+        Assertions.assertThat(service.obterPorDescricao("viagem")).contains(nova);
+        Mockito.verify(repository, Mockito.times(1)).findByDescricaoNormalizada("viagem");
+    }
+
+    @Test
+    public void deveIncluirNoCatalogoCategoriaEncontradaSomenteNoBanco() {
+        // Cenario
+        Categoria nova = Categoria.builder().id(3L).descricao("Viagem").build();
+        Mockito.when(repository.findAll()).thenReturn(Collections.emptyList());
+        Mockito.when(repository.findById(3L)).thenReturn(Optional.of(nova));
+        service.recarregarCatalogo();
+        String versaoAnterior = service.obterVersaoCatalogo();
+
+        // Execução
+        service.obterPorId(3L);
+        Optional<Categoria> categoria = service.obterPorId(3L);
+
+        // Verificação
+        Assertions.assertThat(categoria).contains(nova);
+        Assertions.assertThat(service.obterVersaoCatalogo()).isNotEqualTo(versaoAnterior);
+        Mockito.verify(repository, Mockito.times(1)).findById(3L);
+    }
 }
@@ -0,0 +1,107 @@
+package com.example.minhasfinancas.service;
+
+import com.example.minhasfinancas.api.dto.ImportacaoJobDTO;
+import com.example.minhasfinancas.api.dto.ImportacaoResultadoDTO;
+import com.example.minhasfinancas.exception.ImportacaoRecusadaException;
+import com.example.minhasfinancas.model.entity.Usuario;
+import com.example.minhasfinancas.service.impl.ImportacaoAssincronaServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntConsumer;
+
+public class ImportacaoAssincronaServiceTest {
+
+    LancamentoService lancamentoService = Mockito.mock(LancamentoService.class);
+    UsuarioService usuarioService = Mockito.mock(UsuarioService.class);
+    ImportacaoAssincronaServiceImpl service = new ImportacaoAssincronaServiceImpl(lancamentoService, usuarioService, new SimpleMeterRegistry(), 1, 1, 60);
+
+    MockMultipartFile arquivo = new MockMultipartFile("file", "test.csv", "text/csv",
+            "descricao,mes,ano,valor,tipo,latitude,longitude,categoria\nSalario,1,2024,3000,RECEITA,,,\n".getBytes());
+
+    @After
+    public void encerrar() {
+        service.encerrar();
+    }
+
+    @Test
+    public void deveProcessarAImportacaoForaDaRequisicaoEDevolverOResultado() throws Exception {
+        // Cenario
+        ImportacaoResultadoDTO resultado = new ImportacaoResultadoDTO(1, 0, Collections.emptyList(), null);
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+        Mockito.when(lancamentoService.importarLancamentosCSVEmLotes(Mockito.any(), Mockito.eq(1L), Mockito.any(IntConsumer.class)))
+                .thenAnswer(invocacao -> {
+                    ((IntConsumer) invocacao.getArgument(2)).accept(1);
+                    return resultado;
+                });
+
+        // Acao
+        ImportacaoJobDTO job = service.iniciar(arquivo, 1L);
+        ImportacaoJobDTO status = aguardarFim(job.getId());
+
+        // Verificacao
+        Assertions.assertThat(status.getStatus()).isEqualTo("CONCLUIDA");
+        Assertions.assertThat(status.getPercentual()).isEqualTo(100);
+        Assertions.assertThat(status.getLinhasProcessadas()).isEqualTo(1);
+        Assertions.assertThat(status.getResultado()).isSameAs(resultado);
+    }
+
+    @Test
+    public void deveRecusarImportacaoQuandoAFilaEstiverCheia() throws Exception {
+        // Cenario: uma importação ocupa a única thread e outra ocupa a única vaga da fila
+        CountDownLatch liberar = new CountDownLatch(1);
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+        Mockito.when(lancamentoService.importarLancamentosCSVEmLotes(Mockito.any(), Mockito.eq(1L), Mockito.any(IntConsumer.class)))
+                .thenAnswer(invocacao -> {
+                    liberar.await();
+                    return new ImportacaoResultadoDTO(0, 0, Collections.emptyList(), null);
+                });
+        service.iniciar(arquivo, 1L);
+        service.iniciar(arquivo, 1L);
+
+        // Acao e verificacao
+        Throwable erro = Assertions.catchThrowable(() -> service.iniciar(arquivo, 1L));
+        liberar.countDown();
+        Assertions.assertThat(erro).isInstanceOf(ImportacaoRecusadaException.class);
+    }
+
+    @Test
+    public void naoDeveMostrarAImportacaoParaOutroUsuario() throws Exception {
+        // Cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+        Mockito.when(lancamentoService.importarLancamentosCSVEmLotes(Mockito.any(), Mockito.eq(1L), Mockito.any(IntConsumer.class)))
+                .thenReturn(new ImportacaoResultadoDTO(0, 0, Collections.emptyList(), null));
+        ImportacaoJobDTO job = service.iniciar(arquivo, 1L);
+
+        // Acao e verificacao
+        Assertions.assertThat(service.obterStatus(job.getId(), 2L)).isEmpty();
+        Assertions.assertThat(service.obterStatus(job.getId(), 1L)).isPresent();
+    }
+
+    @Test
+    public void naoDeveIniciarImportacaoParaUsuarioInexistente() {
+        Mockito.when(usuarioService.obterPorId(2L)).thenReturn(Optional.empty());
+
+        Throwable erro = Assertions.catchThrowable(() -> service.iniciar(arquivo, 2L));
+
+        Assertions.assertThat(erro).isInstanceOf(IllegalArgumentException.class).hasMessage("Usuário não encontrado");
+    }
+
+    private ImportacaoJobDTO aguardarFim(String id) throws InterruptedException {
+        for (int tentativa = 0; tentativa < 100; tentativa++) {
+            ImportacaoJobDTO status = service.obterStatus(id, 1L).get();
+            if (status.getStatus().equals("CONCLUIDA") || status.getStatus().equals("FALHOU")) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("A importação não terminou a tempo.");
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.minhasfinancas.service;
+
+import com.example.minhasfinancas.MinhasfinancasApplication;
+import com.example.minhasfinancas.model.entity.Usuario;
+import com.example.minhasfinancas.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Optional;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@SpringBootTest(classes = MinhasfinancasApplication.class)
+public class JwtServiceTest {
+
+    @SpyBean
+    JwtServiceImpl service;
+
+    @Test
+    public void deveVerificarOTokenUmaUnicaVez() {
+        // Cenario
+        Usuario usuario = Usuario.builder().id(1L).nome("usuario").email("usuario@email.com").build();
+        String token = service.gerarToken(usuario);
+
+        // Acao
+        Optional<Claims> primeira = service.obterClaimsValidas(token);
+        Optional<Claims> segunda = service.obterClaimsValidas(token);
+
+        // Verificacao
+        Assertions.assertThat(primeira).isPresent();
+        Assertions.assertThat(segunda.get().getSubject()).isEqualTo("usuario@email.com");
+        Assertions.assertThat(service.isTokenValido(token)).isTrue();
+        Mockito.verify(service, Mockito.times(1)).obterClaims(token);
+    }
+
+    @Test
+    public void naoDeveValidarTokenAdulterado() {
+        // Cenario
+        Usuario usuario = Usuario.builder().id(1L).nome("usuario").email("usuario@email.com").build();
+        String token = service.gerarToken(usuario);
+        String adulterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // Acao e verificacao
+        Assertions.assertThat(service.obterClaimsValidas(adulterado)).isEmpty();
+        Assertions.assertThat(service.obterClaimsValidas("token-invalido")).isEmpty();
+    }
+}
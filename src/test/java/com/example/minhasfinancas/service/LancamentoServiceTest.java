@@ -3,40 +3,61 @@ package com.example.minhasfinancas.service;
 import com.example.minhasfinancas.MinhasfinancasApplication;
 import com.example.minhasfinancas.api.dto.ImportacaoResultadoDTO;
 import com.example.minhasfinancas.exception.RegraNegocioException;
+import com.example.minhasfinancas.model.entity.Categoria;
+import com.example.minhasfinancas.model.entity.ImportacaoArquivo;
 import com.example.minhasfinancas.model.entity.Lancamento;
 import com.example.minhasfinancas.model.entity.Usuario;
+import com.example.minhasfinancas.model.enums.FormatoExportacao;
 import com.example.minhasfinancas.model.enums.StatusLancamento;
 import com.example.minhasfinancas.model.enums.TipoLancamento;
+import com.example.minhasfinancas.model.repository.AreaGeografica;
+import com.example.minhasfinancas.model.repository.ContribuicaoResumo;
+import com.example.minhasfinancas.model.repository.ImportacaoArquivoRepository;
+import com.example.minhasfinancas.model.repository.LancamentoFiltro;
 import com.example.minhasfinancas.model.repository.LancamentoRepository;
 import com.example.minhasfinancas.model.repository.LancamentoRepositoryTest;
 import com.example.minhasfinancas.service.impl.CategoriaServiceImpl;
 import com.example.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.example.minhasfinancas.service.impl.ResolvedorImportacao;
 import com.example.minhasfinancas.service.impl.UsuarioServiceImpl;
-import com.opencsv.exceptions.CsvValidationException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.assertj.core.api.Assertions;
+import org.junit.After;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureTestEntityManager;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
-import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -56,6 +77,9 @@ public class LancamentoServiceTest {
     @MockBean
     LancamentoRepository repository;
 
+    @MockBean
+    ImportacaoArquivoRepository importacaoArquivoRepository;
+
     @Autowired
     private LancamentoServiceImpl lancamentoServiceImpl;
 
@@ -67,6 +91,25 @@ public class LancamentoServiceTest {
     @Autowired
     private LancamentoRepository lancamentoRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Object tamanhoLoteOriginal;
+
+    @Before
+    public void guardarTamanhoLote() {
+        tamanhoLoteOriginal = ReflectionTestUtils.getField(service, "tamanhoLote");
+    }
+
+    // Alguns testes mudam o tamanho do lote no bean compartilhado pelo contexto
+    @After
+    public void restaurarTamanhoLote() {
+        ReflectionTestUtils.setField(service, "tamanhoLote", tamanhoLoteOriginal);
+    }
+
 
     @Test
     public void deveSalvarUmLancamento() {
@@ -215,10 +258,10 @@ public class LancamentoServiceTest {
         lancamento.setId(1l);
 
         List<Lancamento> lista = Arrays.asList(lancamento);
-        Mockito.when(repository.findAll(Mockito.any(Example.class))).thenReturn(lista);
+        Mockito.when(repository.findAll(Mockito.any(Specification.class), Mockito.any(Sort.class))).thenReturn(lista);
 
         //execucao
-        List<Lancamento> resultado = service.buscar(lancamento);
+        List<Lancamento> resultado = service.buscar(LancamentoFiltro.builder().idUsuario(1L).descricao("lancamento").build());
 
         //verificacoes
         Assertions.assertThat(resultado)
@@ -228,21 +271,131 @@ public class LancamentoServiceTest {
     }
 
     @Test
-    public void deveAtualizarOStatusDeUmLancamento() {
+    public void naoDeveFiltrarLancamentosSemUsuario() {
+        //execucao e verificacao
+        Throwable erro = Assertions.catchThrowable(() -> service.buscar(LancamentoFiltro.builder().ano(2024).build()));
+        Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Usuário.");
+        Mockito.verify(repository, Mockito.never()).findAll(Mockito.any(Specification.class), Mockito.any(Sort.class));
+    }
+
+    @Test
+    public void deveExportarLancamentosEmCsvCompactado() throws IOException {
         //cenario
         Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-        lancamento.setId(1l);
-        lancamento.setStatus(StatusLancamento.PENDENTE);
+        Mockito.when(repository.streamPorFiltro(Mockito.any(Specification.class), Mockito.anyInt())).thenReturn(Stream.of(lancamento));
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
 
-        StatusLancamento novoStatus = StatusLancamento.EFETIVADO;
-        Mockito.doReturn(lancamento).when(service).atualizar(lancamento);
+        //execucao
+        service.exportar(LancamentoFiltro.builder().idUsuario(1L).build(), FormatoExportacao.CSV_GZIP, saida);
+
+        //verificacao
+        String csv;
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(saida.toByteArray()))) {
+            csv = StreamUtils.copyToString(entrada, StandardCharsets.UTF_8);
+        }
+        Assertions.assertThat(csv).startsWith("descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n")
+                .contains("lancamento qualquer,1,2024,10,RECEITA,,,");
+    }
+
+    @Test
+    public void deveDesfazerOLoteQuandoOutraOperacaoAlterarOsLancamentos() {
+        //cenario
+        ContribuicaoResumo pendentes = new ContribuicaoResumo(1L, 2024, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE,
+                null, 2L, BigDecimal.valueOf(20));
+        Mockito.when(repository.bloquear(any())).thenReturn(2);
+        Mockito.when(repository.agruparContribuicoes(any())).thenReturn(Collections.singletonList(pendentes));
+        Mockito.when(repository.atualizarStatus(any(), eq(StatusLancamento.CANCELADO))).thenReturn(1);
+
+        //execucao
+        Throwable erro = Assertions.catchThrowable(() ->
+                service.atualizarStatusEmLote(1L, Arrays.asList(1L, 2L), StatusLancamento.CANCELADO));
+
+        //verificacao
+        Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class)
+                .hasMessage("Os lançamentos foram alterados por outra operação. Tente novamente.");
+    }
+
+    @Test
+    public void naoDeveAlterarOLoteQuandoNenhumLancamentoForBloqueado() {
+        //cenario
+        Mockito.when(repository.bloquear(any())).thenReturn(0);
 
         //execucao
-        service.atualizarStatus(lancamento, novoStatus);
+        int afetados = service.deletarEmLote(1L, Arrays.asList(1L, 2L));
+
+        //verificacao
+        Assertions.assertThat(afetados).isZero();
+        Mockito.verify(repository, Mockito.never()).agruparContribuicoes(any());
+        Mockito.verify(repository, Mockito.never()).deletar(any());
+    }
+
+    @Test
+    public void deveExigirAAreaParaAgruparNoMapaEmZoomAlto() {
+        //execucao
+        Throwable semArea = Assertions.catchThrowable(() -> service.agruparNoMapa(1L, 4, null));
+        Throwable areaGrande = Assertions.catchThrowable(() -> service.agruparNoMapa(1L, 10, new AreaGeografica(-60, -120, 60, 120)));
+        service.agruparNoMapa(1L, 3, null);
+        service.agruparNoMapa(1L, 10, new AreaGeografica(-23.6, -46.7, -23.5, -46.6));
+
+        //verificacao
+        Assertions.assertThat(semArea).isInstanceOf(IllegalArgumentException.class).hasMessage("Informe a área visível para agrupar neste zoom.");
+        Assertions.assertThat(areaGrande).isInstanceOf(IllegalArgumentException.class).hasMessage("A área é grande demais para o zoom. Reduza a área ou o zoom.");
+        Mockito.verify(repository, Mockito.times(2)).agruparPorCelula(any(), anyInt());
+    }
+
+    @Test
+    public void deveTransicionarOStatusComUmUpdateCondicional() {
+        //cenario
+        ContribuicaoResumo efetivado = new ContribuicaoResumo(1L, 2024, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO,
+                null, BigDecimal.valueOf(10));
+        Mockito.when(repository.atualizarStatus(any(), eq(StatusLancamento.EFETIVADO))).thenReturn(1);
+        Mockito.when(repository.obterContribuicaoResumo(1L)).thenReturn(Optional.of(efetivado));
+
+        //execucao
+        boolean transicionado = service.transicionarStatus(1L, StatusLancamento.EFETIVADO);
+
+        //verificacao
+        Assertions.assertThat(transicionado).isTrue();
+        Mockito.verify(repository, Mockito.never()).findById(anyLong());
+        Mockito.verify(repository, Mockito.never()).save(any());
+    }
+
+    @Test
+    public void naoDeveTransicionarOStatusQuandoNenhumaLinhaAtenderAsCondicoes() {
+        //cenario
+        Mockito.when(repository.atualizarStatus(any(), eq(StatusLancamento.CANCELADO))).thenReturn(0);
+
+        //execucao
+        boolean transicionado = service.transicionarStatus(1L, StatusLancamento.CANCELADO);
+
+        //verificacao
+        Assertions.assertThat(transicionado).isFalse();
+        Mockito.verify(repository, Mockito.never()).obterContribuicaoResumo(anyLong());
+    }
+
+    @Test
+    public void naoDeveDeletarPorFiltroSemCriterioAlemDoUsuario() {
+        //cenario
+        LancamentoFiltro filtro = LancamentoFiltro.builder().idUsuario(1L).build();
+
+        //execucao
+        Throwable erro = Assertions.catchThrowable(() -> service.deletarPorFiltro(filtro));
+
+        //verificacao
+        Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class);
+        Mockito.verify(repository, Mockito.never()).deletar(any());
+    }
+
+    @Test
+    public void naoDeveTransicionarParaUmStatusQueNaoSejaEfetivadoOuCancelado() {
+        //execucao
+        Throwable erro = Assertions.catchThrowable(() -> service.transicionarStatus(1L, StatusLancamento.PENDENTE));
 
         //verificacoes
-        Assertions.assertThat(lancamento.getStatus()).isEqualTo(novoStatus);
-        Mockito.verify(service).atualizar(lancamento);
+        Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class)
+                .hasMessage("Não foi possível atualizar o status do lançamento, envie um status válido.");
+        Mockito.verify(repository, Mockito.never()).atualizarStatus(any(), any());
+        Mockito.verify(service, Mockito.never()).atualizar(any());
     }
 
     @Test
@@ -345,7 +498,7 @@ public class LancamentoServiceTest {
 
     //testes CSV
     @Test(expected = IllegalArgumentException.class)
-    public void deveLancarErroQuandoArquivoCSVEstiverVazio() throws CsvValidationException, IOException {
+    public void deveLancarErroQuandoArquivoCSVEstiverVazio() throws IOException {
         // Cenario
         MultipartFile file = Mockito.mock(MultipartFile.class);
         Mockito.when(file.isEmpty()).thenReturn(true);
@@ -367,7 +520,7 @@ public class LancamentoServiceTest {
 
 
     @Test
-    public void deveLancarErroAoTentarImportarCSVComNumeroDeColunasInvalido() throws IOException, CsvValidationException {
+    public void deveLancarErroAoTentarImportarCSVComNumeroDeColunasInvalido() throws IOException {
         // Cenário: um CSV com um cabeçalho e uma linha de dados que possui menos de seis colunas.
         String conteudoCSV = "descricao,mês,ano,valor,latitude,longitude,categoria\n" +
                 "Salario,5,2024,3000\n";
@@ -389,7 +542,7 @@ public class LancamentoServiceTest {
 
 
     @Test
-    public void deveLancarErroAoImportarLancamentosComDescricaoInvalida() throws IOException, CsvValidationException {
+    public void deveLancarErroAoImportarLancamentosComDescricaoInvalida() throws IOException {
         // Cenário
         String conteudoCSV = "descricao,mês,ano,valor,tipo,latitude,longitude,categoria\n" + // Cabeçalho
                 ",5,2024,3000,RECEITA,23.345,23.234,\n";
@@ -410,7 +563,7 @@ public class LancamentoServiceTest {
     }
 
     @Test
-    public void deveLancarErroAoImportarLancamentosComMesInvalido() throws IOException, CsvValidationException {
+    public void deveLancarErroAoImportarLancamentosComMesInvalido() throws IOException {
         // Cenário
         String conteudoCSV = "descricao,mês,ano,valor,tipo,latitude,longitude,categoria\n" + // Cabeçalho
                 "Salario,13,2024,3000,RECEITA,-24.999,-43.897,\n";
@@ -431,7 +584,7 @@ public class LancamentoServiceTest {
     }
 
     @Test
-    public void deveLancarErroAoImportarLancamentosComMesInvalidoComLetras() throws IOException, CsvValidationException {
+    public void deveLancarErroAoImportarLancamentosComMesInvalidoComLetras() throws IOException {
         // Cenário
         String conteudoCSV = "descricao,mês,ano,valor,tipo,latitude,longitude,categoria\n" + // Cabeçalho
                 "Salario,ab,2024,3000,RECEITA,-24.999,-43.897,\n";
@@ -452,7 +605,7 @@ public class LancamentoServiceTest {
     }
 
     @Test
-    public void deveLancarErroAoImportarLancamentosComValorNegativo() throws IOException, CsvValidationException {
+    public void deveLancarErroAoImportarLancamentosComValorNegativo() throws IOException {
         // Cenário
         String conteudoCSV = "descricao,mês,ano,valor,tipo,latitude,longitude,categoria\n" + // Cabeçalho
                 "Salario,5,2024,-3000,RECEITA,-24.987,-23.543,\n";
@@ -473,7 +626,7 @@ public class LancamentoServiceTest {
     }
 
     @Test
-    public void deveLancarErroAoImportarLancamentosComValorInvalido() throws IOException, CsvValidationException {
+    public void deveLancarErroAoImportarLancamentosComValorInvalido() throws IOException {
         // Cenário
         String conteudoCSV = "descricao,mês,ano,valor,tipo,latitude,longitude,categoria\n" + // Cabeçalho
                 "Salario,5,2024,abc,RECEITA,-24.987,-23.543,\n";
@@ -494,7 +647,7 @@ public class LancamentoServiceTest {
     }
 
     @Test
-    public void deveLancarErroAoImportarLancamentosComAnoInvalido() throws IOException, CsvValidationException {
+    public void deveLancarErroAoImportarLancamentosComAnoInvalido() throws IOException {
         // Cenário
         String conteudoCSV = "descricao,mês,ano,valor,tipo,latitude,longitude,categoria\n" + // Cabeçalho
                 "Salario,5,100,3000,RECEITA,13.000,-12.657,\n";
@@ -515,7 +668,7 @@ public class LancamentoServiceTest {
     }
 
     @Test
-    public void deveLancarErroAoImportarLancamentosComAnoInvalidoComLetras() throws IOException, CsvValidationException {
+    public void deveLancarErroAoImportarLancamentosComAnoInvalidoComLetras() throws IOException {
         // Cenário
         String conteudoCSV = "descricao,mês,ano,valor,tipo,latitude,longitude,categoria\n" +
                 "Salario,5,abcd,3000,RECEITA,13.000,-12.657,\n";
@@ -536,7 +689,7 @@ public class LancamentoServiceTest {
     }
 
     @Test
-    public void deveLancarErroAoImportarLancamentosComTipoInvalido() throws IOException, CsvValidationException {
+    public void deveLancarErroAoImportarLancamentosComTipoInvalido() throws IOException {
         // Cenário
         String conteudoCSV = "descricao,mês,ano,valor,tipo,latitude,longitude,categoria\n" +
                 "Salario,5,2024,3000,RTA,-23.234,23.987,\n";
@@ -560,28 +713,23 @@ public class LancamentoServiceTest {
     public void deveRetornarSaldoPositivoQuandoHouverReceitas() {
         // Cenário
         Long usuarioId = 1L;
-        BigDecimal receitas = BigDecimal.valueOf(1000);
-        BigDecimal despesas = BigDecimal.valueOf(500);
 
-        when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(usuarioId, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO)).thenReturn(receitas);
-        when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(usuarioId, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO)).thenReturn(despesas);
+        when(repository.obterSaldoPorUsuarioEStatus(usuarioId, StatusLancamento.EFETIVADO)).thenReturn(BigDecimal.valueOf(500));
 
         // Execução
         BigDecimal saldo = service.obterSaldoPorUsuario(usuarioId);
 
         // Verificação
         Assertions.assertThat(saldo).isEqualTo(BigDecimal.valueOf(500));
+        Mockito.verify(repository, Mockito.times(1)).obterSaldoPorUsuarioEStatus(usuarioId, StatusLancamento.EFETIVADO);
     }
 
     @Test
     public void deveRetornarSaldoNegativoQuandoHouverMaisDespesasQueReceitas() {
         // Cenário
         Long usuarioId = 1L;
-        BigDecimal receitas = BigDecimal.valueOf(300);
-        BigDecimal despesas = BigDecimal.valueOf(500);
 
-        when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(usuarioId, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO)).thenReturn(receitas);
-        when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(usuarioId, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO)).thenReturn(despesas);
+        when(repository.obterSaldoPorUsuarioEStatus(usuarioId, StatusLancamento.EFETIVADO)).thenReturn(BigDecimal.valueOf(-200));
 
         // Execução
         BigDecimal saldo = service.obterSaldoPorUsuario(usuarioId);
@@ -595,8 +743,7 @@ public class LancamentoServiceTest {
         // Cenário
         Long usuarioId = 1L;
 
-        when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(usuarioId, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO)).thenReturn(null);
-        when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(usuarioId, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO)).thenReturn(null);
+        when(repository.obterSaldoPorUsuarioEStatus(usuarioId, StatusLancamento.EFETIVADO)).thenReturn(null);
 
         // Execução
         BigDecimal saldo = service.obterSaldoPorUsuario(usuarioId);
@@ -606,72 +753,249 @@ public class LancamentoServiceTest {
     }
 
     @Test
-    public void deveRetornarSaldoQuandoReceitasEdespesasSaoNulos() {
+    public void colunaMesForaDoFormatoValido() throws IOException {
+        String csvContent = "descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n" +
+                "Teste,13,2023,1000,RECEITA,12.345,45.678,"; // Mês inválido (13)
+        MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes());
+
+        ImportacaoResultadoDTO resultado = service.importarLancamentosCSV(file, 1L);
+
+        Assertions.assertThat(resultado.getErros()).isEqualTo(1);
+        Assertions.assertThat(resultado.getMensagensErros()).contains("- Erro(s) na linha 1:\n Coluna de mês: Mês inválido (valor: 13).");
+    }
+
+    @Test
+    public void colunaAnoForaDoFormatoValido() throws IOException {
+        String csvContent = "descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n" +
+                "Teste,12,99,1000,RECEITA,12.345,45.678,"; // Ano inválido (99)
+        MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes());
+
+        ImportacaoResultadoDTO resultado = service.importarLancamentosCSV(file, 1L);
+
+        Assertions.assertThat(resultado.getErros()).isEqualTo(1);
+        Assertions.assertThat(resultado.getMensagensErros()).contains("- Erro(s) na linha 1:\n Coluna de ano: Ano inválido (deve ter 4 dígitos, valor: 99).");
+    }
+
+    @Test
+    public void colunaValorForaDoFormatoValido() throws IOException {
+        String csvContent = "descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n" +
+                "Teste,12,2023,-1000,RECEITA,12.345,45.678,"; // Valor inválido (-1000)
+        MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes());
+
+        ImportacaoResultadoDTO resultado = service.importarLancamentosCSV(file, 1L);
+
+        Assertions.assertThat(resultado.getErros()).isEqualTo(1);
+        Assertions.assertThat(resultado.getMensagensErros()).contains("- Erro(s) na linha 1:\n Coluna de valor: Valor não pode ser negativo (valor: -1000).");
+    }
+
+
+    @Test
+    public void deveImportarLancamentosCSVEmLotes() throws IOException {
         // Cenário
-        Long usuarioId = 1L;
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        ReflectionTestUtils.setField(service, "tamanhoLote", 2);
 
-        when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(usuarioId, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO)).thenReturn(null);
-        when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(usuarioId, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO)).thenReturn(BigDecimal.valueOf(300));
+        String csvContent = "descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n" +
+                "Salario,1,2024,3000,RECEITA,12.345,45.678,\n" +
+                "Aluguel,1,2024,1000,DESPESA,12.345,45.678,\n" +
+                "Mercado,13,2024,500,DESPESA,12.345,45.678,\n" +
+                "Freela,2,2024,800,RECEITA,12.345,45.678,\n";
+        MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes());
 
         // Execução
-        BigDecimal saldo = service.obterSaldoPorUsuario(usuarioId);
+        ImportacaoResultadoDTO resultado = service.importarLancamentosCSVEmLotes(file, usuario.getId());
+
+        // Verificação: 3 linhas válidas gravadas em 2 lotes, sem devolver os lançamentos em JSON
+        Assertions.assertThat(resultado.getLancamentosImportados()).isEqualTo(3);
+        Assertions.assertThat(resultado.getErros()).isEqualTo(1);
+        Assertions.assertThat(resultado.getMensagensErros()).contains("- Erro(s) na linha 3:\n Coluna de mês: Mês inválido (valor: 13).");
+        Assertions.assertThat(resultado.getLancamentosJson()).isNull();
+        Mockito.verify(repository, Mockito.times(2)).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    public void deveRegistrarMetricasDaImportacao() throws IOException {
+        // Cenário
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        double aceitasAntes = meterRegistry.counter("importacao.linhas", "resultado", "aceita").count();
+        double rejeitadasAntes = meterRegistry.counter("importacao.linhas", "resultado", "rejeitada").count();
+
+        String csvContent = "descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n" +
+                "Salario,1,2024,3000,RECEITA,12.345,45.678,\n" +
+                "Mercado,13,2024,500,DESPESA,12.345,45.678,\n";
+        MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes());
+
+        // Execução
+        service.importarLancamentosCSVEmLotes(file, usuario.getId());
 
         // Verificação
-        Assertions.assertThat(saldo).isEqualTo(BigDecimal.valueOf(-300));
+        Assertions.assertThat(meterRegistry.counter("importacao.linhas", "resultado", "aceita").count() - aceitasAntes).isEqualTo(1.0);
+        Assertions.assertThat(meterRegistry.counter("importacao.linhas", "resultado", "rejeitada").count() - rejeitadasAntes).isEqualTo(1.0);
+        Assertions.assertThat(meterRegistry.find("importacao.etapa").tags("modo", "lotes", "etapa", "persistencia").timer()).isNotNull();
     }
 
     @Test
-    public void deveRetornarSaldoQuandoDespesasSaoNulas() {
+    public void deveImportarCamposEntreAspasEQuebrasDeLinhaCRLF() throws IOException {
         // Cenário
-        Long usuarioId = 1L;
-        BigDecimal receitas = BigDecimal.valueOf(500);
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
 
-        when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(usuarioId, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO)).thenReturn(receitas);
-        when(repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(usuarioId, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO)).thenReturn(null);
+        String csvContent = "descricao,mes,ano,valor,tipo,latitude,longitude,categoria\r\n" +
+                "\"Aluguel, apto \"\"centro\"\"\",1,2024,1000.50,despesa,12.345,45.678,\r\n" +
+                "\"Conta com\nduas linhas\",2,2024,10,RECEITA,,,\r\n" +
+                "Mercado,3,2024,abc,DESPESA,12.345,45.678,\r\n";
+        MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
 
         // Execução
-        BigDecimal saldo = service.obterSaldoPorUsuario(usuarioId);
+        ImportacaoResultadoDTO resultado = service.importarLancamentosCSV(file, usuario.getId());
 
         // Verificação
-        Assertions.assertThat(saldo).isEqualTo(BigDecimal.valueOf(500));
+        Assertions.assertThat(resultado.getLancamentosImportados()).isEqualTo(2);
+        Assertions.assertThat(resultado.getMensagensErros()).containsExactly("- Erro(s) na linha 3:\n Coluna de valor: Formato inválido.");
+
+        ArgumentCaptor<List<Lancamento>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(repository).saveAll(captor.capture());
+        Lancamento aluguel = captor.getValue().get(0);
+        Assertions.assertThat(aluguel.getDescricao()).isEqualTo("Aluguel, apto \"centro\"");
+        Assertions.assertThat(aluguel.getValor()).isEqualByComparingTo("1000.50");
+        Assertions.assertThat(aluguel.getTipo()).isEqualTo(TipoLancamento.DESPESA);
+        Assertions.assertThat(captor.getValue().get(1).getDescricao()).isEqualTo("Conta com\nduas linhas");
+        Assertions.assertThat(captor.getValue().get(1).getLatitude()).isNull();
     }
 
     @Test
-    public void colunaMesForaDoFormatoValido() throws IOException, CsvValidationException {
+    public void deveImportarComEscapesEEspacosAntesDasAspasComoOOpencsv() throws IOException {
+        // Cenário: barra invertida escapando aspas e a própria barra, barra solta descartada, espaços antes das aspas
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+
         String csvContent = "descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n" +
-                "Teste,13,2023,1000,RECEITA,12.345,45.678,"; // Mês inválido (13)
-        MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes());
+                "\"Curso \\\"Java\\\", parte\nC:\\\\cursos\",1,2024,100,RECEITA,, \"12.345\",\n" +
+                "Conta\\ de luz,2,2024,50,  \"DESPESA\",,,\n";
+        MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
 
-        ImportacaoResultadoDTO resultado = service.importarLancamentosCSV(file, 1L);
+        // Execução
+        ImportacaoResultadoDTO resultado = service.importarLancamentosCSV(file, usuario.getId());
 
-        Assertions.assertThat(resultado.getErros()).isEqualTo(1);
-        Assertions.assertThat(resultado.getMensagensErros()).contains("- Erro(s) na linha 1:\n Coluna de mês: Mês inválido (valor: 13).");
+        // Verificação
+        Assertions.assertThat(resultado.getLancamentosImportados()).isEqualTo(2);
+
+        ArgumentCaptor<List<Lancamento>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(repository).saveAll(captor.capture());
+        Lancamento curso = captor.getValue().get(0);
+        Assertions.assertThat(curso.getDescricao()).isEqualTo("Curso \"Java\", parte\nC:\\cursos");
+        Assertions.assertThat(curso.getLongitude()).isEqualByComparingTo("12.345");
+        Lancamento conta = captor.getValue().get(1);
+        Assertions.assertThat(conta.getDescricao()).isEqualTo("Conta de luz");
+        Assertions.assertThat(conta.getTipo()).isEqualTo(TipoLancamento.DESPESA);
+    }
+
+    @Test
+    public void deveManterNumeroEOrdemDasLinhasNaValidacaoParalela() throws IOException {
+        // Cenário: arquivo maior que um bloco da validação paralela, com uma linha inválida a cada 500
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+
+        StringBuilder csvContent = new StringBuilder("descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n");
+        for (int i = 1; i <= 2500; i++) {
+            csvContent.append("Lancamento ").append(i).append(',')
+                    .append(i % 500 == 0 ? 13 : 1).append(",2024,100,RECEITA,12.345,45.678,\n");
+        }
+        MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.toString().getBytes());
+
+        // Execução
+        ImportacaoResultadoDTO resultado = service.importarLancamentosCSVEmLotes(file, usuario.getId());
+
+        // Verificação
+        Assertions.assertThat(resultado.getLancamentosImportados()).isEqualTo(2495);
+        Assertions.assertThat(resultado.getErros()).isEqualTo(5);
+        Assertions.assertThat(resultado.getMensagensErros()).containsExactly(
+                "- Erro(s) na linha 500:\n Coluna de mês: Mês inválido (valor: 13).",
+                "- Erro(s) na linha 1000:\n Coluna de mês: Mês inválido (valor: 13).",
+                "- Erro(s) na linha 1500:\n Coluna de mês: Mês inválido (valor: 13).",
+                "- Erro(s) na linha 2000:\n Coluna de mês: Mês inválido (valor: 13).",
+                "- Erro(s) na linha 2500:\n Coluna de mês: Mês inválido (valor: 13).");
     }
 
     @Test
-    public void colunaAnoForaDoFormatoValido() throws IOException, CsvValidationException {
+    public void deveIgnorarLinhasJaGravadasNaImportacaoSemDuplicados() throws IOException {
+        // Cenário: o banco informa que uma das três linhas já estava gravada
+        Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").senha("senha").build());
+        List<String> hashes = new ArrayList<>();
+        Mockito.when(repository.inserirIgnorandoDuplicados(Mockito.anyList())).thenAnswer(invocacao -> {
+            List<Lancamento> lote = invocacao.getArgument(0);
+            lote.forEach(lancamento -> hashes.add(lancamento.getHashImportacao()));
+            return lote.size() - 1;
+        });
+
         String csvContent = "descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n" +
-                "Teste,12,99,1000,RECEITA,12.345,45.678,"; // Ano inválido (99)
+                "Cafe,1,2024,5,DESPESA,,,\n" +
+                "Cafe,1,2024,5.00,DESPESA,,,\n" +
+                "Salario,1,2024,3000,RECEITA,,,\n";
         MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes());
 
-        ImportacaoResultadoDTO resultado = service.importarLancamentosCSV(file, 1L);
+        // Execução
+        ImportacaoResultadoDTO resultado = service.importarLancamentosCSVSemDuplicados(file, usuario.getId());
 
-        Assertions.assertThat(resultado.getErros()).isEqualTo(1);
-        Assertions.assertThat(resultado.getMensagensErros()).contains("- Erro(s) na linha 1:\n Coluna de ano: Ano inválido (deve ter 4 dígitos, valor: 99).");
+        // Verificação: linhas iguais no mesmo arquivo recebem hashes diferentes e o arquivo fica registrado
+        Assertions.assertThat(resultado.getLancamentosImportados()).isEqualTo(2);
+        Assertions.assertThat(resultado.getDuplicados()).isEqualTo(1);
+        Assertions.assertThat(hashes).hasSize(3).doesNotHaveDuplicates().doesNotContainNull();
+        Mockito.verify(importacaoArquivoRepository).save(Mockito.argThat(arquivo -> arquivo.getLancamentos() == 3));
     }
 
     @Test
-    public void colunaValorForaDoFormatoValido() throws IOException, CsvValidationException {
+    public void naoDeveLerNovamenteArquivoJaImportado() throws IOException {
+        // Cenário
+        Mockito.when(importacaoArquivoRepository.findByIdUsuarioAndHashArquivo(Mockito.eq(1L), Mockito.anyString()))
+                .thenReturn(Optional.of(ImportacaoArquivo.builder().idUsuario(1L).lancamentos(3).build()));
+
         String csvContent = "descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n" +
-                "Teste,12,2023,-1000,RECEITA,12.345,45.678,"; // Valor inválido (-1000)
+                "Salario,1,2024,3000,RECEITA,,,\n";
         MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes());
 
-        ImportacaoResultadoDTO resultado = service.importarLancamentosCSV(file, 1L);
+        // Execução
+        ImportacaoResultadoDTO resultado = service.importarLancamentosCSVSemDuplicados(file, 1L);
 
-        Assertions.assertThat(resultado.getErros()).isEqualTo(1);
-        Assertions.assertThat(resultado.getMensagensErros()).contains("- Erro(s) na linha 1:\n Coluna de valor: Valor não pode ser negativo (valor: -1000).");
+        // Verificação
+        Assertions.assertThat(resultado.getLancamentosImportados()).isZero();
+        Assertions.assertThat(resultado.getDuplicados()).isEqualTo(3);
+        Mockito.verify(repository, Mockito.never()).inserirIgnorandoDuplicados(Mockito.anyList());
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void naoDeveImportarLancamentosCSVEmLotesParaUsuarioInexistente() throws IOException {
+        // Cenário
+        String csvContent = "descricao,mes,ano,valor,tipo,latitude,longitude,categoria\n" +
+                "Salario,1,2024,3000,RECEITA,12.345,45.678,\n";
+        MultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes());
+
+        // Execução
+        service.importarLancamentosCSVEmLotes(file, 999L);
+    }
+
+    @Test
+    public void deveResolverUsuarioECategoriasUmaUnicaVezPorImportacao() {
+        // Cenário
+        UsuarioServiceImpl usuarioService = Mockito.mock(UsuarioServiceImpl.class);
+        CategoriaServiceImpl categoriaService = Mockito.mock(CategoriaServiceImpl.class);
+        Categoria mercado = Categoria.builder().id(1L).descricao("Mercado").build();
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+        Mockito.when(categoriaService.obterPorDescricao("Mercado")).thenReturn(Optional.of(mercado));
+        Mockito.when(categoriaService.obterPorDescricao("Inexistente")).thenReturn(Optional.empty());
+
+        ResolvedorImportacao resolvedor = new ResolvedorImportacao(usuarioService, categoriaService, 1L);
+
+        // Execução
+        for (int i = 0; i < 10; i++) {
+            resolvedor.obterUsuario();
+            resolvedor.obterCategoria(" Mercado ");
+            resolvedor.obterCategoria("Inexistente");
+        }
+
+        // Verificação
+        Assertions.assertThat(resolvedor.obterCategoria("Mercado")).contains(mercado);
+        Mockito.verify(usuarioService, Mockito.times(1)).obterPorId(1L);
+        Mockito.verify(categoriaService, Mockito.times(1)).obterPorDescricao("Mercado");
+        Mockito.verify(categoriaService, Mockito.times(1)).obterPorDescricao("Inexistente");
+    }
 
 }
 
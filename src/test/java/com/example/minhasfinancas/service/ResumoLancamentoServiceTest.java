@@ -0,0 +1,137 @@
+package com.example.minhasfinancas.service;
+
+import com.example.minhasfinancas.MinhasfinancasApplication;
+import com.example.minhasfinancas.api.dto.ReconciliacaoResumoDTO;
+import com.example.minhasfinancas.api.dto.ResumoLancamentoDTO;
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.entity.ResumoLancamento;
+import com.example.minhasfinancas.model.entity.Usuario;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import com.example.minhasfinancas.model.repository.ContribuicaoResumo;
+import com.example.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.example.minhasfinancas.model.repository.ResumoLancamentoRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureTestEntityManager;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@SpringBootTest(classes = MinhasfinancasApplication.class)
+@AutoConfigureTestEntityManager
+@Transactional
+public class ResumoLancamentoServiceTest {
+
+    @Autowired
+    ResumoLancamentoService service;
+
+    @Autowired
+    ResumoLancamentoRepository repository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Test
+    public void deveCriarACelulaNaPrimeiraAlteracaoEIncrementarNasSeguintes() {
+        // Cenário
+        Usuario usuario = criarUsuario("usuario@email.com");
+        Lancamento primeiro = persistirLancamento(usuario, 1, StatusLancamento.PENDENTE, 100);
+
+        // Execução
+        service.atualizarResumo(null, ContribuicaoResumo.de(primeiro));
+        Lancamento segundo = persistirLancamento(usuario, 1, StatusLancamento.PENDENTE, 30);
+        service.atualizarResumo(null, ContribuicaoResumo.de(segundo));
+        entityManager.clear();
+
+        // Verificação
+        List<ResumoLancamentoDTO> resumo = service.obterResumo(usuario.getId(), 2024, 1, 2024, 12);
+        Assertions.assertThat(resumo).hasSize(1);
+        Assertions.assertThat(resumo.get(0).getQuantidade()).isEqualTo(2L);
+        Assertions.assertThat(resumo.get(0).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(130));
+    }
+
+    @Test
+    public void deveMoverOLancamentoDeCelulaQuandoOStatusMudar() {
+        // Cenário
+        Usuario usuario = criarUsuario("usuario@email.com");
+        Lancamento lancamento = persistirLancamento(usuario, 1, StatusLancamento.PENDENTE, 100);
+        service.adicionarAoResumo(Collections.singletonList(lancamento));
+        ContribuicaoResumo anterior = ContribuicaoResumo.de(lancamento);
+
+        // Execução
+        lancamento.setStatus(StatusLancamento.EFETIVADO);
+        service.atualizarResumo(anterior, ContribuicaoResumo.de(lancamento));
+        entityManager.clear();
+
+        // Verificação
+        List<ResumoLancamentoDTO> resumo = service.obterResumo(usuario.getId(), 2024, 1, 2024, 1);
+        Assertions.assertThat(resumo).hasSize(1);
+        Assertions.assertThat(resumo.get(0).getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+        Assertions.assertThat(resumo.get(0).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(100));
+    }
+
+    @Test
+    public void deveCalcularPelosLancamentosQuandoOUsuarioNaoTemResumo() {
+        // Cenário
+        Usuario usuario = criarUsuario("usuario@email.com");
+        persistirLancamento(usuario, 3, StatusLancamento.EFETIVADO, 40);
+        persistirLancamento(usuario, 5, StatusLancamento.EFETIVADO, 60);
+
+        // Execução
+        List<ResumoLancamentoDTO> resumo = service.obterResumo(usuario.getId(), 2024, 4, 2024, 12);
+
+        // Verificação
+        Assertions.assertThat(resumo).hasSize(1);
+        Assertions.assertThat(resumo.get(0).getMes()).isEqualTo(5);
+        Assertions.assertThat(resumo.get(0).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(60));
+    }
+
+    @Test
+    public void deveCorrigirEInformarDivergenciasNaReconciliacao() {
+        // Cenário
+        Usuario usuario = criarUsuario("usuario@email.com");
+        persistirLancamento(usuario, 1, StatusLancamento.EFETIVADO, 500);
+        persistirLancamento(usuario, 2, StatusLancamento.EFETIVADO, 200);
+        repository.save(ResumoLancamento.builder().idUsuario(usuario.getId()).ano(2024).mes(1)
+                .tipo(TipoLancamento.RECEITA).status(StatusLancamento.EFETIVADO).idCategoria(ContribuicaoResumo.SEM_CATEGORIA)
+                .quantidade(1L).total(BigDecimal.valueOf(10)).build());
+
+        // Execução
+        ReconciliacaoResumoDTO resultado = service.reconciliar();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Verificação
+        Assertions.assertThat(resultado.getDivergencias()).isEqualTo(1);
+        List<ResumoLancamentoDTO> resumo = service.obterResumo(usuario.getId(), 2024, 1, 2024, 2);
+        Assertions.assertThat(resumo).extracting(ResumoLancamentoDTO::getTotal)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.valueOf(500), BigDecimal.valueOf(200));
+    }
+
+    private Usuario criarUsuario(String email) {
+        return entityManager.persist(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+    }
+
+    private Lancamento persistirLancamento(Usuario usuario, int mes, StatusLancamento status, int valor) {
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamento.setMes(mes);
+        lancamento.setStatus(status);
+        lancamento.setValor(BigDecimal.valueOf(valor));
+        return entityManager.persist(lancamento);
+    }
+}
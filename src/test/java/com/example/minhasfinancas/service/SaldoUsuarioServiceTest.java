@@ -0,0 +1,102 @@
+package com.example.minhasfinancas.service;
+
+import com.example.minhasfinancas.MinhasfinancasApplication;
+import com.example.minhasfinancas.api.dto.ReconciliacaoSaldoDTO;
+import com.example.minhasfinancas.model.entity.Lancamento;
+import com.example.minhasfinancas.model.entity.SaldoUsuario;
+import com.example.minhasfinancas.model.entity.Usuario;
+import com.example.minhasfinancas.model.enums.StatusLancamento;
+import com.example.minhasfinancas.model.enums.TipoLancamento;
+import com.example.minhasfinancas.model.repository.ContribuicaoSaldo;
+import com.example.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.example.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureTestEntityManager;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@SpringBootTest(classes = MinhasfinancasApplication.class)
+@AutoConfigureTestEntityManager
+@Transactional
+public class SaldoUsuarioServiceTest {
+
+    @Autowired
+    SaldoUsuarioService service;
+
+    @Autowired
+    SaldoUsuarioRepository repository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Test
+    public void deveCriarOSaldoNaPrimeiraAlteracaoEIncrementarNasSeguintes() {
+        // Cenário
+        Usuario usuario = criarUsuario("usuario@email.com");
+        Lancamento receita = persistirLancamento(usuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 100);
+
+        // Execução
+        service.atualizarSaldo(null, ContribuicaoSaldo.de(receita));
+        Lancamento despesa = persistirLancamento(usuario, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 30);
+        service.atualizarSaldo(null, ContribuicaoSaldo.de(despesa));
+        entityManager.clear();
+
+        // Verificação
+        Assertions.assertThat(service.obterSaldo(usuario.getId()).get()).isEqualByComparingTo(BigDecimal.valueOf(70));
+    }
+
+    @Test
+    public void naoDeveAlterarOSaldoQuandoOLancamentoNaoEstaEfetivado() {
+        // Cenário
+        Usuario usuario = criarUsuario("usuario@email.com");
+        Lancamento pendente = persistirLancamento(usuario, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 100);
+
+        // Execução
+        service.atualizarSaldo(null, ContribuicaoSaldo.de(pendente));
+
+        // Verificação
+        Assertions.assertThat(service.obterSaldo(usuario.getId()).isPresent()).isFalse();
+    }
+
+    @Test
+    public void deveCorrigirEInformarDivergenciasNaReconciliacao() {
+        // Cenário
+        Usuario usuario = criarUsuario("usuario@email.com");
+        persistirLancamento(usuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 500);
+        repository.save(new SaldoUsuario(usuario.getId(), BigDecimal.valueOf(10)));
+
+        // Execução
+        ReconciliacaoSaldoDTO resultado = service.reconciliar();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Verificação
+        Assertions.assertThat(resultado.getDivergencias()).isEqualTo(1);
+        Assertions.assertThat(service.obterSaldo(usuario.getId()).get()).isEqualByComparingTo(BigDecimal.valueOf(500));
+    }
+
+    private Usuario criarUsuario(String email) {
+        return entityManager.persist(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+    }
+
+    private Lancamento persistirLancamento(Usuario usuario, TipoLancamento tipo, StatusLancamento status, int valor) {
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamento.setTipo(tipo);
+        lancamento.setStatus(status);
+        lancamento.setValor(BigDecimal.valueOf(valor));
+        return entityManager.persist(lancamento);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.minhasfinancas.service;
+
+import com.example.minhasfinancas.model.repository.UsuarioRepository;
+import com.example.minhasfinancas.service.impl.SecurityUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Optional;
+
+public class SecurityUserDetailsServiceTest {
+
+    UsuarioRepository repository = Mockito.mock(UsuarioRepository.class);
+
+    @Test
+    public void deveMontarOUsuarioAutenticadoPelasClaimsSemConsultarOBanco() {
+        // Cenario
+        SecurityUserDetailsService service = new SecurityUserDetailsService(repository, true, 0);
+        Claims claims = new DefaultClaims().setSubject("usuario@email.com");
+
+        // Acao
+        Optional<UserDetails> usuario = service.carregarPorClaims(claims);
+
+        // Verificacao
+        Assertions.assertThat(usuario).isPresent();
+        Assertions.assertThat(usuario.get().getUsername()).isEqualTo("usuario@email.com");
+        Mockito.verifyZeroInteractions(repository);
+    }
+
+    @Test
+    public void deveVerificarAExistenciaDoUsuarioUmaVezPorIntervalo() {
+        // Cenario
+        SecurityUserDetailsService service = new SecurityUserDetailsService(repository, true, 60);
+        Claims claims = new DefaultClaims().setSubject("usuario@email.com");
+        Mockito.when(repository.existsByEmail("usuario@email.com")).thenReturn(true);
+
+        // Acao
+        service.carregarPorClaims(claims);
+        Optional<UserDetails> usuario = service.carregarPorClaims(claims);
+
+        // Verificacao
+        Assertions.assertThat(usuario).isPresent();
+        Mockito.verify(repository, Mockito.times(1)).existsByEmail("usuario@email.com");
+    }
+
+    @Test
+    public void naoDeveAutenticarUsuarioRemovido() {
+        // Cenario
+        SecurityUserDetailsService service = new SecurityUserDetailsService(repository, true, 60);
+        Mockito.when(repository.existsByEmail("removido@email.com")).thenReturn(false);
+
+        // Acao e verificacao
+        Assertions.assertThat(service.carregarPorClaims(new DefaultClaims().setSubject("removido@email.com"))).isEmpty();
+    }
+}